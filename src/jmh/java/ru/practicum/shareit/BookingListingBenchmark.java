@@ -0,0 +1,101 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingCursor;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingResponseDto;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Листинг бронирований владельца: проекция BookingListView против загрузки сущностей с догрузкой
+ * букеров и вещей. Аллокации на операцию видны с профайлером: {@code -Djmh.args="BookingListing -prof gc"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+public class BookingListingBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+    private static final String OWNER_BOOKINGS = "SELECT b FROM Booking b " +
+            "WHERE b.item.ownerEntity.id = :ownerId " +
+            "ORDER BY b.start DESC, b.id DESC";
+
+    @State(Scope.Benchmark)
+    public static class Repositories {
+        BookingRepository bookingRepository;
+        UserRepository userRepository;
+        ItemRepository itemRepository;
+        EntityManager entityManager;
+        TransactionTemplate readOnly;
+
+        @Setup(Level.Trial)
+        public void setUp(SeededShareIt data) {
+            bookingRepository = data.context.getBean(BookingRepository.class);
+            userRepository = data.context.getBean(UserRepository.class);
+            itemRepository = data.context.getBean(ItemRepository.class);
+            entityManager = data.context.getBean(EntityManager.class);
+            readOnly = new TransactionTemplate(data.context.getBean(PlatformTransactionManager.class));
+            readOnly.setReadOnly(true);
+        }
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> projection(Repositories repositories) {
+        BookingCursor first = BookingCursor.first();
+        return repositories.readOnly.execute(status -> repositories.bookingRepository
+                .findAllByItemOwnerId(1L, first.getStart(), first.getId(), PageRequest.of(0, PAGE_SIZE))
+                .stream()
+                .map(BookingMapper::toBookingResponseDto)
+                .toList());
+    }
+
+    // Прежний путь: управляемые сущности бронирований и отдельные запросы за букерами и вещами
+    @Benchmark
+    public List<BookingResponseDto> entities(Repositories repositories) {
+        return repositories.readOnly.execute(status -> {
+            List<Booking> bookings = repositories.entityManager.createQuery(OWNER_BOOKINGS, Booking.class)
+                    .setParameter("ownerId", 1L)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList();
+            Map<Long, User> bookers = repositories.userRepository
+                    .findAllById(bookings.stream().map(Booking::getBookerId).collect(Collectors.toSet()))
+                    .stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+            Map<Long, Item> items = repositories.itemRepository
+                    .findAllById(bookings.stream().map(Booking::getItemId).collect(Collectors.toSet()))
+                    .stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            return bookings.stream()
+                    .map(booking -> BookingMapper.toBookingResponseDto(booking,
+                            bookers.get(booking.getBookerId()), items.get(booking.getItemId())))
+                    .toList();
+        });
+    }
+}
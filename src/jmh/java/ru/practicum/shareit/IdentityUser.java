@@ -0,0 +1,26 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Копия User с прежней генерацией IDENTITY, только для InsertBenchmark.
+ * Таблицу users_identity создаёт сам бенчмарк.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "users_identity")
+public class IdentityUser {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @Column(name = "email", nullable = false, unique = true, length = 512)
+    private String email;
+}
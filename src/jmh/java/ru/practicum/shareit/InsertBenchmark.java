@@ -0,0 +1,118 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.User;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Массовая вставка пользователей одной транзакцией: прежняя генерация IDENTITY (INSERT на каждый persist)
+ * против последовательности с pooled-lo, где вставки уходят JDBC-пакетами при flush.
+ * Запуск: {@code mvn -P benchmark verify -Djmh.args="InsertBenchmark -rf json -rff target/jmh-result.json"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+public class InsertBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class EmptyShareIt {
+
+        @Param({"100", "1000"})
+        public int rows;
+
+        ConfigurableApplicationContext context;
+        EntityManager entityManager;
+        TransactionTemplate transaction;
+        JdbcTemplate jdbc;
+        long sequence;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = new SpringApplicationBuilder(ShareItApp.class)
+                    .web(WebApplicationType.NONE)
+                    .properties(
+                            "spring.datasource.url=jdbc:h2:mem:insert-bench;DB_CLOSE_DELAY=-1",
+                            "spring.sql.init.mode=always",
+                            "spring.jpa.hibernate.ddl-auto=none",
+                            "spring.jpa.show-sql=false",
+                            "spring.h2.console.enabled=false",
+                            "logging.level.root=WARN")
+                    .run();
+            entityManager = context.getBean(EntityManager.class);
+            transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            jdbc = context.getBean(JdbcTemplate.class);
+            jdbc.execute("CREATE TABLE IF NOT EXISTS users_identity (" +
+                    "id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY, " +
+                    "name VARCHAR(255) NOT NULL, " +
+                    "email VARCHAR(512) NOT NULL UNIQUE)");
+        }
+
+        // Таблицы не растут между итерациями, чтобы индексы не замедляли поздние замеры
+        @Setup(Level.Iteration)
+        public void truncate() {
+            jdbc.execute("DELETE FROM users_identity");
+            jdbc.execute("DELETE FROM users");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+
+        String nextEmail() {
+            return "user" + sequence++ + "@example.com";
+        }
+    }
+
+    @Benchmark
+    public int identity(EmptyShareIt data) {
+        return data.transaction.execute(status -> {
+            for (int i = 0; i < data.rows; i++) {
+                IdentityUser user = new IdentityUser();
+                user.setName("Пользователь");
+                user.setEmail(data.nextEmail());
+                data.entityManager.persist(user);
+            }
+            data.entityManager.flush();
+            data.entityManager.clear();
+            return data.rows;
+        });
+    }
+
+    @Benchmark
+    public int sequencePooledLo(EmptyShareIt data) {
+        return data.transaction.execute(status -> {
+            for (int i = 0; i < data.rows; i++) {
+                User user = new User();
+                user.setName("Пользователь");
+                user.setEmail(data.nextEmail());
+                data.entityManager.persist(user);
+            }
+            data.entityManager.flush();
+            data.entityManager.clear();
+            return data.rows;
+        });
+    }
+}
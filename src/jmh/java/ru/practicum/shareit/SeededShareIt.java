@@ -0,0 +1,164 @@
+package ru.practicum.shareit;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.BookingPhase;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.InMemoryItemSearchIndex;
+import ru.practicum.shareit.item.ItemSearchIndex;
+import ru.practicum.shareit.item.ItemService;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Контекст приложения поверх in-memory H2, заполненной детерминированным набором данных.
+ * Размер задаётся числом бронирований; пользователей в сто раз меньше, вещей — в десять,
+ * так что у каждой вещи десять непересекающихся бронирований в прошлом, настоящем и будущем.
+ * Недоступна каждая десятая вещь, статусы и названия выбираются генератором с фиксированным сидом.
+ */
+@State(Scope.Benchmark)
+public class SeededShareIt {
+
+    static final long SEED = 42L;
+    static final String[] WORDS = {"дрель", "пила", "молоток", "лестница", "палатка",
+            "велосипед", "самокат", "шуруповёрт", "стремянка", "перфоратор"};
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final int BOOKINGS_PER_ITEM = 10;
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    public ConfigurableApplicationContext context;
+    public BookingService bookingService;
+    public ItemService itemService;
+
+    public int users;
+    public int items;
+    public LocalDateTime anchor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + rows + ";DB_CLOSE_DELAY=-1",
+                        "spring.sql.init.mode=always",
+                        "spring.jpa.hibernate.ddl-auto=none",
+                        "spring.jpa.show-sql=false",
+                        "spring.h2.console.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+        bookingService = context.getBean(BookingService.class);
+        itemService = context.getBean(ItemService.class);
+
+        users = Math.max(10, rows / 100);
+        items = Math.max(10, rows / BOOKINGS_PER_ITEM);
+        anchor = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        seed(context.getBean(JdbcTemplate.class));
+
+        if (context.getBean(ItemSearchIndex.class) instanceof InMemoryItemSearchIndex index) {
+            index.rebuild();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Владелец вещи с заданным id: вещи раздаются пользователям по кругу.
+     */
+    public long ownerOf(long itemId) {
+        return (itemId - 1) % users + 1;
+    }
+
+    /**
+     * Число доступных для бронирования вещей: недоступна каждая десятая.
+     */
+    public long availableItems() {
+        return items - items / 10;
+    }
+
+    /**
+     * Id k-й по счёту доступной вещи, k от нуля.
+     */
+    public long availableItem(long k) {
+        return k + k / 9 + 1;
+    }
+
+    private void seed(JdbcTemplate jdbc) {
+        Random random = new Random(SEED);
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int u = 1; u <= users; u++) {
+            batch.add(new Object[]{"Пользователь " + u, "user" + u + "@bench.ru"});
+            flushIfFull(jdbc, "INSERT INTO users (name, email) VALUES (?, ?)", batch);
+        }
+        flush(jdbc, "INSERT INTO users (name, email) VALUES (?, ?)", batch);
+
+        String insertItem = "INSERT INTO items (name, description, available, owner_id) VALUES (?, ?, ?, ?)";
+        for (int i = 1; i <= items; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            String other = WORDS[random.nextInt(WORDS.length)];
+            batch.add(new Object[]{word + " " + i, "Хорошая " + other + " в аренду", i % 10 != 0, ownerOf(i)});
+            flushIfFull(jdbc, insertItem, batch);
+        }
+        flush(jdbc, insertItem, batch);
+
+        String insertBooking = "INSERT INTO bookings (start_date, end_date, item_id, booker_id, status, phase) "
+                + "VALUES (?, ?, ?, ?, ?, ?)";
+        LocalDateTime now = LocalDateTime.now();
+        for (int b = 0; b < rows; b++) {
+            long itemId = b % items + 1;
+            int slot = b / items;
+            LocalDateTime start = anchor.plusDays(slot - BOOKINGS_PER_ITEM / 2).minusHours(12);
+            long booker = (ownerOf(itemId) + 1 + random.nextInt(users - 1)) % users;
+            batch.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(23)), itemId,
+                    booker == 0 ? users : booker, randomStatus(random).name(),
+                    BookingPhase.at(start, start.plusHours(23), now).name()});
+            flushIfFull(jdbc, insertBooking, batch);
+        }
+        flush(jdbc, insertBooking, batch);
+    }
+
+    private static BookingStatus randomStatus(Random random) {
+        int roll = random.nextInt(100);
+        if (roll < 60) {
+            return BookingStatus.APPROVED;
+        } else if (roll < 80) {
+            return BookingStatus.WAITING;
+        } else if (roll < 95) {
+            return BookingStatus.REJECTED;
+        }
+        return BookingStatus.CANCELLED;
+    }
+
+    private static void flushIfFull(JdbcTemplate jdbc, String sql, List<Object[]> batch) {
+        if (batch.size() >= BATCH_SIZE) {
+            flush(jdbc, sql, batch);
+        }
+    }
+
+    private static void flush(JdbcTemplate jdbc, String sql, List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(sql, batch);
+            batch.clear();
+        }
+    }
+}
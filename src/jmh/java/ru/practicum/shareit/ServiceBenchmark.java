@@ -0,0 +1,76 @@
+package ru.practicum.shareit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingResponseDto;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.item.ItemDto;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Задержка горячих методов сервисного слоя на заполненной базе.
+ * Запуск: {@code mvn -P benchmark verify}, фильтр — {@code -Djmh.args="ServiceBenchmark.search -rf json"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+public class ServiceBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+
+    @State(Scope.Benchmark)
+    public static class OwnerListing {
+        @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+        public BookingState state;
+    }
+
+    /**
+     * Генератор непересекающихся интервалов: каждое новое бронирование на год позже сида
+     * и на два часа позже предыдущего, поэтому проверка пересечений всегда проходит.
+     */
+    @State(Scope.Benchmark)
+    public static class NewBookings {
+        final AtomicLong sequence = new AtomicLong();
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> getBookingsByOwner(SeededShareIt data, OwnerListing listing) {
+        return data.bookingService.getBookingsByOwner(1L, listing.state, null, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<ItemDto> getItemsByOwner(SeededShareIt data) {
+        return data.itemService.getItemsByOwner(1L);
+    }
+
+    @Benchmark
+    public List<ItemDto> searchItems(SeededShareIt data) {
+        return data.itemService.searchItems(SeededShareIt.WORDS[0], 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public BookingResponseDto addBooking(SeededShareIt data, NewBookings bookings) {
+        long n = bookings.sequence.getAndIncrement();
+        long itemId = data.availableItem(n % data.availableItems());
+
+        BookingDto dto = new BookingDto();
+        dto.setItemId(itemId);
+        dto.setStart(data.anchor.plusYears(1).plusHours(2 * (n / data.availableItems())));
+        dto.setEnd(dto.getStart().plusHours(1));
+        return data.bookingService.addBooking(data.ownerOf(itemId) % data.users + 1, dto);
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Кэши приложения. Реализация и параметры вытеснения задаются через spring.cache.* в application.properties.
+ * Кэш стоит снаружи транзакций: попадание не открывает транзакцию.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    // UserDto по id пользователя
+    public static final String USERS = "users";
+
+    // Только положительные результаты проверки существования пользователя
+    public static final String USER_EXISTS = "userExists";
+
+    // ItemView по id вещи, без бронирований владельца
+    public static final String ITEMS = "items";
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * Свободный отрезок календаря вещи [start, end).
+ */
+public record AvailabilitySlot(LocalDateTime start, LocalDateTime end) {
+}
@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "start_date", nullable = false)
@@ -40,6 +41,15 @@ public class Booking {
     @Column(name = "status", nullable = false, length = 20)
     private BookingStatus status;
 
+    // Меняется только массовыми UPDATE планировщика фаз, поэтому не попадает в UPDATE сущности
+    @Enumerated(EnumType.STRING)
+    @Column(name = "phase", nullable = false, length = 10, updatable = false)
+    private BookingPhase phase;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // Для обратной совместимости с существующим кодом
     @Transient
     public Long getItemId() {
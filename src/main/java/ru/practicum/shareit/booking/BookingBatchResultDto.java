@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Data;
+
+/**
+ * Результат одной позиции пакета: index — её номер в запросе, status — HTTP-код,
+ * который вернул бы одиночный POST /bookings. При успехе заполнено booking, иначе error.
+ */
+@Data
+public class BookingBatchResultDto {
+    private int index;
+    private int status;
+    private BookingResponseDto booking;
+    private String error;
+
+    public static BookingBatchResultDto created(int index, BookingResponseDto booking) {
+        BookingBatchResultDto result = new BookingBatchResultDto();
+        result.setIndex(index);
+        result.setStatus(201);
+        result.setBooking(booking);
+        return result;
+    }
+
+    public static BookingBatchResultDto failed(int index, int status, String error) {
+        BookingBatchResultDto result = new BookingBatchResultDto();
+        result.setIndex(index);
+        result.setStatus(status);
+        result.setError(error);
+        return result;
+    }
+}
@@ -3,7 +3,10 @@ package ru.practicum.shareit.booking;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -13,7 +16,10 @@ import java.util.List;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final BookingEventBroker bookingEventBroker;
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String DEFAULT_PAGE_SIZE = "10";
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -22,6 +28,13 @@ public class BookingController {
         return bookingService.addBooking(userId, bookingDto);
     }
 
+    // Позиции пакета проверяются по отдельности: ошибки возвращаются в результатах, а не кодом ответа
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> addBookings(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                   @RequestBody List<BookingDto> bookingDtos) {
+        return bookingService.addBookings(userId, bookingDtos);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingResponseDto approveBooking(@RequestHeader(USER_ID_HEADER) Long userId,
                                              @PathVariable Long bookingId,
@@ -29,6 +42,15 @@ public class BookingController {
         return bookingService.approveBooking(userId, bookingId, approved);
     }
 
+    // Изменения бронирований пользователя (как автора и как владельца вещи) вместо опроса списков
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    // Клиент SSE принимает только text/event-stream, поэтому неизвестному пользователю 404 без тела
+    public ResponseEntity<SseEmitter> streamBookings(@RequestHeader(USER_ID_HEADER) Long userId) {
+        return bookingEventBroker.subscribe(userId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/{bookingId}")
     public BookingResponseDto getBookingById(@RequestHeader(USER_ID_HEADER) Long userId,
                                              @PathVariable Long bookingId) {
@@ -36,14 +58,35 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingResponseDto> getBookingsByUser(@RequestHeader(USER_ID_HEADER) Long userId,
-                                                      @RequestParam(defaultValue = "ALL") BookingState state) {
-        return bookingService.getBookingsByUser(userId, state);
+    public ResponseEntity<List<BookingResponseDto>> getBookingsByUser(
+            @RequestHeader(USER_ID_HEADER) Long userId,
+            @RequestParam(defaultValue = "ALL") BookingState state,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "0") Integer from,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) Integer size) {
+        return withNextCursor(bookingService.getBookingsByUser(userId, state,
+                BookingCursor.decode(cursor), from, size), size);
     }
 
     @GetMapping("/owner")
-    public List<BookingResponseDto> getBookingsByOwner(@RequestHeader(USER_ID_HEADER) Long userId,
-                                                       @RequestParam(defaultValue = "ALL") BookingState state) {
-        return bookingService.getBookingsByOwner(userId, state);
+    public ResponseEntity<List<BookingResponseDto>> getBookingsByOwner(
+            @RequestHeader(USER_ID_HEADER) Long userId,
+            @RequestParam(defaultValue = "ALL") BookingState state,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "0") Integer from,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) Integer size) {
+        return withNextCursor(bookingService.getBookingsByOwner(userId, state,
+                BookingCursor.decode(cursor), from, size), size);
+    }
+
+    // Полная страница означает, что могут быть ещё записи: отдаём курсор на следующую
+    private ResponseEntity<List<BookingResponseDto>> withNextCursor(List<BookingResponseDto> bookings, int size) {
+        if (bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+        BookingCursor next = BookingCursor.after(bookings.get(bookings.size() - 1));
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, next.encode())
+                .body(bookings);
     }
 }
\ No newline at end of file
@@ -0,0 +1,191 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.user.UserService;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Внутрипроцессная рассылка изменений бронирований по SSE-подпискам пользователей.
+ * У каждой подписки своя ограниченная очередь; отправкой занимается виртуальный поток, который запускается
+ * только при появлении событий, поэтому простаивающее соединение не держит ни потока, ни буфера.
+ * Подписчик, который не успевает читать и переполнил очередь, отключается: клиент переподключается
+ * и перечитывает бронирования обычным GET.
+ */
+@Slf4j
+@Component
+public class BookingEventBroker {
+
+    static final String BOOKING_EVENT = "booking";
+
+    private static final Duration RECONNECT_TIME = Duration.ofSeconds(3);
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "booking-stream-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final UserService userService;
+    private final int bufferSize;
+    private final Duration timeout;
+
+    public BookingEventBroker(UserService userService,
+                              @Value("${shareit.bookings.stream.buffer-size:64}") int bufferSize,
+                              @Value("${shareit.bookings.stream.timeout:30m}") Duration timeout,
+                              @Value("${shareit.bookings.stream.heartbeat:25s}") Duration heartbeat) {
+        this.userService = userService;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        heartbeats.scheduleAtFixedRate(this::sendHeartbeats, heartbeat.toMillis(), heartbeat.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Открывает поток событий пользователя или возвращает пустой Optional, если пользователя нет.
+     * Соединение закрывается по таймауту, клиент переподключается.
+     */
+    public Optional<SseEmitter> subscribe(Long userId) {
+        if (!userService.userExists(userId)) {
+            return Optional.empty();
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        subscribers.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+        // Первое событие сразу отправляет заголовки ответа и задаёт клиенту паузу перед переподключением
+        subscriber.offer(SseEmitter.event().reconnectTime(RECONNECT_TIME.toMillis()));
+        log.debug("Подписка на бронирования пользователя с id={}", userId);
+        return Optional.of(emitter);
+    }
+
+    /**
+     * Отправляет бронирование автору и владельцу вещи после фиксации текущей транзакции;
+     * при откате ничего не отправляется.
+     */
+    public void publishAfterCommit(BookingResponseDto booking, Long... userIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(booking, userIds);
+                }
+            });
+        } else {
+            publish(booking, userIds);
+        }
+    }
+
+    private void publish(BookingResponseDto booking, Long... userIds) {
+        Set<Long> recipients = new LinkedHashSet<>();
+        for (Long userId : userIds) {
+            if (userId != null) {
+                recipients.add(userId);
+            }
+        }
+        for (Long userId : recipients) {
+            Set<Subscriber> userSubscribers = subscribers.get(userId);
+            if (userSubscribers == null) {
+                continue;
+            }
+            for (Subscriber subscriber : userSubscribers) {
+                subscriber.offer(SseEmitter.event()
+                        .id(booking.getId() + ":" + booking.getStatus())
+                        .name(BOOKING_EVENT)
+                        .data(booking));
+            }
+        }
+    }
+
+    private void sendHeartbeats() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers
+                .forEach(subscriber -> subscriber.offer(SseEmitter.event().comment("heartbeat"))));
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (userId, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        subscribers.values().forEach(userSubscribers -> userSubscribers
+                .forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdown();
+    }
+
+    private class Subscriber {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (queued.incrementAndGet() > bufferSize) {
+                log.warn("Подписчик пользователя с id={} не успевает читать события, соединение закрыто", userId);
+                unsubscribe(this);
+                emitter.complete();
+                return;
+            }
+            queue.add(event);
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        // Один отправитель на подписку сохраняет порядок событий; флаг снимается до повторной проверки
+        // очереди, чтобы событие, добавленное в этот момент, не осталось без отправителя
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while ((event = queue.poll()) != null) {
+                    queued.decrementAndGet();
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        log.debug("Подписчик пользователя с id={} отключился: {}", userId, e.getMessage());
+                        unsubscribe(this);
+                        queue.clear();
+                        return;
+                    }
+                }
+                sending.set(false);
+            } while (!queue.isEmpty() && sending.compareAndSet(false, true));
+        }
+    }
+}
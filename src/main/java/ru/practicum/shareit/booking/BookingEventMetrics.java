@@ -0,0 +1,32 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.outbox.OutboxEvent;
+import ru.practicum.shareit.outbox.OutboxHandler;
+
+import java.util.Arrays;
+
+/**
+ * Считает события жизненного цикла бронирований по типам. Работает из outbox, поэтому учитывает только
+ * зафиксированные изменения; при повторной доставке событие может быть учтено дважды.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingEventMetrics implements OutboxHandler {
+
+    public static final String EVENTS = "shareit.bookings.events";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean supports(String type) {
+        return Arrays.stream(BookingEventType.values()).anyMatch(eventType -> eventType.name().equals(type));
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        meterRegistry.counter(EVENTS, "type", event.getType()).increment();
+    }
+}
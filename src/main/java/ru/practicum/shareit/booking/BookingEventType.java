@@ -0,0 +1,8 @@
+package ru.practicum.shareit.booking;
+
+// Типы событий жизненного цикла бронирования в outbox
+public enum BookingEventType {
+    BOOKING_CREATED,
+    BOOKING_APPROVED,
+    BOOKING_REJECTED
+}
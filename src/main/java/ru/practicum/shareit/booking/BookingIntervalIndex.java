@@ -0,0 +1,376 @@
+package ru.practicum.shareit.booking;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Индекс занятых интервалов по каждой вещи: бронирования в статусах WAITING и APPROVED, которые ещё не закончились.
+ * Интервалы вещи загружаются из базы при первом обращении и дальше поддерживаются при создании и отклонении
+ * бронирований. Проверка пересечения выполняется под блокировкой вещи, поэтому два параллельных addBooking
+ * не могут занять одни и те же даты; до завершения их транзакций вещь закреплена в индексе и не вытесняется. На Postgres дополнительно действует ограничение bookings_no_overlap.
+ * Рядом с интервалами вещи хранится почасовая карта занятости, по которой строится календарь свободных часов.
+ * Карта покрывает OCCUPANCY_HORIZON от момента загрузки вещи, так что её размер не зависит от дат бронирований;
+ * запросы за горизонтом отвечаются по самим интервалам.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+
+    private static final List<BookingStatus> ACTIVE_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private static final int MAX_ITEMS = 100_000;
+    private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(30);
+    // Совпадает с наибольшим окном календаря доступности; плюс сутки на уже начавшиеся бронирования
+    private static final long OCCUPANCY_HORIZON_HOURS = Duration.ofDays(366).toHours();
+    private static final long OCCUPANCY_PAST_HOURS = Duration.ofDays(1).toHours();
+
+    private final BookingRepository bookingRepository;
+    // Вещь с незавершёнными резервированиями не вытесняется: перечитанная из базы копия не увидела бы
+    // их незафиксированные строки. Для неё вес нулевой, а срок простоя бесконечный
+    private final Cache<Long, ItemIntervals> items = Caffeine.newBuilder()
+            .maximumWeight(MAX_ITEMS)
+            .<Long, ItemIntervals>weigher((itemId, intervals) -> intervals.pending > 0 ? 0 : 1)
+            .expireAfter(new Expiry<Long, ItemIntervals>() {
+                @Override
+                public long expireAfterCreate(Long itemId, ItemIntervals intervals, long currentTime) {
+                    return intervals.pending > 0 ? Long.MAX_VALUE : IDLE_TIMEOUT.toNanos();
+                }
+
+                @Override
+                public long expireAfterUpdate(Long itemId, ItemIntervals intervals, long currentTime,
+                                              long currentDuration) {
+                    return expireAfterCreate(itemId, intervals, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(Long itemId, ItemIntervals intervals, long currentTime,
+                                            long currentDuration) {
+                    return expireAfterCreate(itemId, intervals, currentTime);
+                }
+            })
+            .build();
+
+    /**
+     * Занимает интервал [start, end) за бронированием или бросает ConflictException, если он пересекается
+     * с уже занятым. При откате транзакции интервал освобождается.
+     */
+    public void reserve(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        // Вещь могли вытеснить и загрузить заново между intervalsOf и блокировкой: тогда повторяем по новой копии
+        ItemIntervals intervals = intervalsOf(itemId);
+        while (!tryReserve(itemId, intervals, bookingId, start, end)) {
+            intervals = intervalsOf(itemId);
+        }
+
+        ItemIntervals reserved = intervals;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    unpin(itemId, reserved, bookingId, status == STATUS_COMMITTED);
+                }
+            });
+        } else {
+            unpin(itemId, reserved, bookingId, true);
+        }
+    }
+
+    /**
+     * Проверяет без резервирования, что интервал [start, end) свободен. Окончательное решение принимает reserve:
+     * между проверкой и резервированием даты может занять параллельный запрос.
+     */
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemIntervals intervals = intervalsOf(itemId);
+
+        intervals.lock.lock();
+        try {
+            return intervals.findOverlap(null, start, end) == null;
+        } finally {
+            intervals.lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает свободные отрезки вещи внутри [from, to) с точностью до часа: час, в который попадает
+     * хотя бы часть занятого интервала, считается занятым. Края отрезков обрезаются по from и to.
+     */
+    public List<AvailabilitySlot> freeSlots(Long itemId, LocalDateTime from, LocalDateTime to) {
+        ItemIntervals intervals = intervalsOf(itemId);
+
+        List<long[]> runs;
+        intervals.lock.lock();
+        try {
+            runs = intervals.freeRuns(OccupancyBitmap.floorHour(from), OccupancyBitmap.ceilHour(to));
+        } finally {
+            intervals.lock.unlock();
+        }
+
+        List<AvailabilitySlot> slots = new ArrayList<>(runs.size());
+        for (long[] run : runs) {
+            LocalDateTime start = OccupancyBitmap.timeOf(run[0]);
+            LocalDateTime end = OccupancyBitmap.timeOf(run[1]);
+            slots.add(new AvailabilitySlot(start.isBefore(from) ? from : start, end.isAfter(to) ? to : end));
+        }
+        return slots;
+    }
+
+    /**
+     * Отбирает вещи, у которых интервал [from, to) свободен. Интервалы недостающих вещей загружаются
+     * одним запросом; пустой участок карты занятости отвечает без просмотра интервалов, и только если
+     * занятые часы есть, пересечение проверяется точно.
+     */
+    public Set<Long> freeItems(Collection<Long> itemIds, LocalDateTime from, LocalDateTime to) {
+        preload(itemIds);
+        long fromHour = OccupancyBitmap.floorHour(from);
+        long toHour = OccupancyBitmap.ceilHour(to);
+
+        Set<Long> free = new HashSet<>();
+        for (Long itemId : itemIds) {
+            ItemIntervals intervals = intervalsOf(itemId);
+            intervals.lock.lock();
+            try {
+                if (intervals.occupancy.covers(fromHour, toHour) && intervals.occupancy.isClear(fromHour, toHour)
+                        || intervals.findOverlap(null, from, to) == null) {
+                    free.add(itemId);
+                }
+            } finally {
+                intervals.lock.unlock();
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Загружает одним запросом интервалы вещей, которых ещё нет в индексе.
+     * Уже загруженные вещи не перезаписываются.
+     */
+    public void preload(Collection<Long> itemIds) {
+        List<Long> missing = itemIds.stream()
+                .filter(itemId -> items.getIfPresent(itemId) == null)
+                .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        Map<Long, ItemIntervals> loaded = new HashMap<>();
+        missing.forEach(itemId -> loaded.put(itemId, new ItemIntervals()));
+        bookingRepository.findActiveByItemIdIn(missing, ACTIVE_STATUSES, LocalDateTime.now())
+                .forEach(booking -> loaded.get(booking.getItemId())
+                        .add(booking.getId(), booking.getStart(), booking.getEnd()));
+        loaded.forEach(items.asMap()::putIfAbsent);
+        log.debug("Загружены занятые интервалы {} вещей", missing.size());
+    }
+
+    /**
+     * Освобождает интервал бронирования после фиксации транзакции (например, при отклонении).
+     */
+    public void releaseAfterCommit(Long itemId, Long bookingId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release(itemId, bookingId);
+                }
+            });
+        } else {
+            release(itemId, bookingId);
+        }
+    }
+
+    private void release(Long itemId, Long bookingId) {
+        ItemIntervals intervals = items.getIfPresent(itemId);
+        if (intervals == null) {
+            return;
+        }
+
+        intervals.lock.lock();
+        try {
+            intervals.remove(bookingId);
+        } finally {
+            intervals.lock.unlock();
+        }
+    }
+
+    // Загрузка идёт вне вычисления кэша: Caffeine выполняет его под блокировкой корзины ConcurrentHashMap
+    // (synchronized), и запрос к базе под ней закрепил бы виртуальный поток за несущим. Параллельные промахи
+    // могут загрузить вещь дважды, в индекс попадает первая загрузка, как и в preload
+    private ItemIntervals intervalsOf(Long itemId) {
+        ItemIntervals intervals = items.getIfPresent(itemId);
+        if (intervals != null) {
+            return intervals;
+        }
+        ItemIntervals loaded = load(itemId);
+        ItemIntervals raced = items.asMap().putIfAbsent(itemId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    // Закрепляет вещь до проверки: проверка по вытесненной копии пропустила бы незафиксированные бронирования
+    // новой. Возвращает false, если эта копия уже не лежит в индексе
+    private boolean tryReserve(Long itemId, ItemIntervals intervals, Long bookingId,
+                               LocalDateTime start, LocalDateTime end) {
+        intervals.lock.lock();
+        try {
+            intervals.pending++;
+            if (pin(itemId, intervals) != intervals) {
+                intervals.pending--;
+                return false;
+            }
+            Long conflict = intervals.findOverlap(bookingId, start, end);
+            if (conflict != null) {
+                unpin(itemId, intervals, bookingId, true);
+                throw new ConflictException("Вещь с id=" + itemId + " уже забронирована на пересекающиеся даты");
+            }
+            intervals.add(bookingId, start, end);
+            return true;
+        } finally {
+            intervals.lock.unlock();
+        }
+    }
+
+    // Публикует закреплённую вещь в индексе и возвращает копию, которая там лежит. Вес и срок записи
+    // пересчитываются при replace, так что закреплённая запись выпадает из вытеснения по размеру и простою
+    private ItemIntervals pin(Long itemId, ItemIntervals intervals) {
+        Map<Long, ItemIntervals> map = items.asMap();
+        while (true) {
+            ItemIntervals current = map.putIfAbsent(itemId, intervals);
+            if (current == null) {
+                return intervals;
+            }
+            if (current != intervals || map.replace(itemId, intervals, intervals)) {
+                return current;
+            }
+        }
+    }
+
+    // Снимает закрепление резервирования; при откате (keep = false) его интервал освобождается.
+    // Закреплённую запись из индекса никто не убирает, и replace только возвращает ей обычный вес и срок простоя
+    private void unpin(Long itemId, ItemIntervals intervals, Long bookingId, boolean keep) {
+        intervals.lock.lock();
+        try {
+            if (!keep) {
+                intervals.remove(bookingId);
+            }
+            intervals.pending--;
+            items.asMap().replace(itemId, intervals, intervals);
+        } finally {
+            intervals.lock.unlock();
+        }
+    }
+
+    private ItemIntervals load(Long itemId) {
+        ItemIntervals intervals = new ItemIntervals();
+        bookingRepository.findActiveByItemId(itemId, ACTIVE_STATUSES, LocalDateTime.now())
+                .forEach(booking -> intervals.add(booking.getId(), booking.getStart(), booking.getEnd()));
+        log.debug("Загружены занятые интервалы вещи с id={}: {}", itemId, intervals.startById.size());
+        return intervals;
+    }
+
+    private static class ItemIntervals {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final TreeMap<LocalDateTime, Map<Long, LocalDateTime>> byStart = new TreeMap<>();
+        private final Map<Long, LocalDateTime> startById = new HashMap<>();
+        private final OccupancyBitmap occupancy;
+        // Резервирования, чьи транзакции ещё не завершились; меняется под lock, читается весом и сроком кэша
+        private volatile int pending;
+        // Самый длинный интервал вещи: пересечься с [start, end) могут только интервалы,
+        // начинающиеся не раньше start - longest
+        private Duration longest = Duration.ZERO;
+
+        ItemIntervals() {
+            long now = OccupancyBitmap.floorHour(LocalDateTime.now());
+            occupancy = new OccupancyBitmap(now - OCCUPANCY_PAST_HOURS, now + OCCUPANCY_HORIZON_HOURS);
+        }
+
+        // Само бронирование пропускается: при загрузке внутри той же транзакции оно уже видно в базе
+        Long findOverlap(Long bookingId, LocalDateTime start, LocalDateTime end) {
+            NavigableMap<LocalDateTime, Map<Long, LocalDateTime>> candidates =
+                    byStart.subMap(start.minus(longest), true, end, false);
+            for (Map<Long, LocalDateTime> sameStart : candidates.values()) {
+                for (Map.Entry<Long, LocalDateTime> interval : sameStart.entrySet()) {
+                    if (!interval.getKey().equals(bookingId) && interval.getValue().isAfter(start)) {
+                        return interval.getKey();
+                    }
+                }
+            }
+            return null;
+        }
+
+        // Вне горизонта карты окно строится по интервалам; длину окна ограничивает вызывающий
+        List<long[]> freeRuns(long fromHour, long toHour) {
+            if (occupancy.covers(fromHour, toHour)) {
+                return occupancy.freeRuns(fromHour, toHour);
+            }
+            OccupancyBitmap window = new OccupancyBitmap(fromHour, toHour);
+            LocalDateTime from = OccupancyBitmap.timeOf(fromHour);
+            LocalDateTime to = OccupancyBitmap.timeOf(toHour);
+            for (Map.Entry<LocalDateTime, Map<Long, LocalDateTime>> sameStart
+                    : byStart.subMap(from.minus(longest), true, to, false).entrySet()) {
+                for (LocalDateTime end : sameStart.getValue().values()) {
+                    window.set(OccupancyBitmap.floorHour(sameStart.getKey()), OccupancyBitmap.ceilHour(end));
+                }
+            }
+            return window.freeRuns(fromHour, toHour);
+        }
+
+        void add(Long bookingId, LocalDateTime start, LocalDateTime end) {
+            byStart.computeIfAbsent(start, key -> new HashMap<>()).put(bookingId, end);
+            startById.put(bookingId, start);
+            occupancy.set(OccupancyBitmap.floorHour(start), OccupancyBitmap.ceilHour(end));
+            Duration length = Duration.between(start, end);
+            if (length.compareTo(longest) > 0) {
+                longest = length;
+            }
+        }
+
+        void remove(Long bookingId) {
+            LocalDateTime start = startById.remove(bookingId);
+            if (start == null) {
+                return;
+            }
+            Map<Long, LocalDateTime> sameStart = byStart.get(start);
+            LocalDateTime end = sameStart.remove(bookingId);
+            if (sameStart.isEmpty()) {
+                byStart.remove(start);
+            }
+            refill(OccupancyBitmap.floorHour(start), OccupancyBitmap.ceilHour(end));
+        }
+
+        // Крайние часы освобождённого интервала могут быть заняты соседями, поэтому после очистки
+        // их биты восстанавливаются по оставшимся интервалам
+        private void refill(long fromHour, long toHour) {
+            occupancy.clear(fromHour, toHour);
+            LocalDateTime from = OccupancyBitmap.timeOf(fromHour);
+            LocalDateTime to = OccupancyBitmap.timeOf(toHour);
+            for (Map.Entry<LocalDateTime, Map<Long, LocalDateTime>> sameStart
+                    : byStart.subMap(from.minus(longest), true, to, false).entrySet()) {
+                for (LocalDateTime end : sameStart.getValue().values()) {
+                    if (end.isAfter(from)) {
+                        occupancy.set(Math.max(fromHour, OccupancyBitmap.floorHour(sameStart.getKey())),
+                                Math.min(toHour, OccupancyBitmap.ceilHour(end)));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка листинга бронирований: ровно те колонки бронирования, букера и вещи,
+ * которые попадают в BookingResponseDto.
+ */
+public record BookingListView(Long id,
+                              LocalDateTime start,
+                              LocalDateTime end,
+                              BookingStatus status,
+                              Long bookerId,
+                              String bookerName,
+                              String bookerEmail,
+                              Long itemId,
+                              String itemName,
+                              String itemDescription,
+                              Boolean itemAvailable) {
+}
@@ -1,10 +1,14 @@
 package ru.practicum.shareit.booking;
 
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserMapper;
 
+import java.time.LocalDateTime;
+
 public class BookingMapper {
 
     public static BookingResponseDto toBookingResponseDto(Booking booking, User booker, Item item) {
@@ -18,6 +22,39 @@ public class BookingMapper {
         return dto;
     }
 
+    public static BookingResponseDto toBookingResponseDto(Booking booking, UserDto booker, Item item) {
+        BookingResponseDto dto = new BookingResponseDto();
+        dto.setId(booking.getId());
+        dto.setStart(booking.getStart());
+        dto.setEnd(booking.getEnd());
+        dto.setStatus(booking.getStatus());
+        dto.setBooker(booker);
+        dto.setItem(ItemMapper.toItemDto(item));
+        return dto;
+    }
+
+    public static BookingResponseDto toBookingResponseDto(BookingListView view) {
+        UserDto booker = new UserDto();
+        booker.setId(view.bookerId());
+        booker.setName(view.bookerName());
+        booker.setEmail(view.bookerEmail());
+
+        ItemDto item = new ItemDto();
+        item.setId(view.itemId());
+        item.setName(view.itemName());
+        item.setDescription(view.itemDescription());
+        item.setAvailable(view.itemAvailable());
+
+        BookingResponseDto dto = new BookingResponseDto();
+        dto.setId(view.id());
+        dto.setStart(view.start());
+        dto.setEnd(view.end());
+        dto.setStatus(view.status());
+        dto.setBooker(booker);
+        dto.setItem(item);
+        return dto;
+    }
+
     public static Booking toBooking(BookingDto bookingDto, Long bookerId) {
         Booking booking = new Booking();
         booking.setStart(bookingDto.getStart());
@@ -25,6 +62,7 @@ public class BookingMapper {
         booking.setItemId(bookingDto.getItemId());
         booking.setBookerId(bookerId);
         booking.setStatus(BookingStatus.WAITING);
+        booking.setPhase(BookingPhase.at(bookingDto.getStart(), bookingDto.getEnd(), LocalDateTime.now()));
         return booking;
     }
 
@@ -37,4 +75,14 @@ public class BookingMapper {
         dto.setBookerId(booking.getBookerId());
         return dto;
     }
+
+    public static BookingShortDto toBookingShortDto(ItemBookingView view) {
+        if (view == null) {
+            return null;
+        }
+        BookingShortDto dto = new BookingShortDto();
+        dto.setId(view.getId());
+        dto.setBookerId(view.getBookerId());
+        return dto;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * Положение бронирования во времени, хранится в колонке phase и переводится вперёд {@link BookingPhaseScheduler}.
+ */
+public enum BookingPhase {
+    FUTURE,     // start > now
+    CURRENT,    // start <= now <= end
+    PAST;       // end < now
+
+    public static BookingPhase at(LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        if (end.isBefore(now)) {
+            return PAST;
+        }
+        return start.isAfter(now) ? FUTURE : CURRENT;
+    }
+
+    /**
+     * Момент, после которого бронирование перейдёт в следующую фазу, или null для PAST.
+     */
+    public static LocalDateTime nextBoundary(BookingPhase phase, LocalDateTime start, LocalDateTime end) {
+        return switch (phase) {
+            case FUTURE -> start;
+            case CURRENT -> end;
+            case PAST -> null;
+        };
+    }
+}
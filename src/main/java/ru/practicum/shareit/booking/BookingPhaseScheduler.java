@@ -0,0 +1,193 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Переводит материализованную фазу бронирований FUTURE -> CURRENT -> PAST в моменты начала и конца.
+ * Очередь переходов — сама таблица: ближайший момент берётся по индексам (phase, start_date) и (phase, end_date),
+ * поэтому после перезапуска планировщик сначала догоняет всё просроченное, а затем засыпает до следующей границы.
+ * Границы округляются вверх до granularity, так что близкие переходы выполняются одной пачкой;
+ * на это же время фаза может отставать от дат. Новые бронирования с более ранней границей будят планировщик.
+ */
+@Slf4j
+@Component
+public class BookingPhaseScheduler {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final List<BookingPhase> NOT_PAST = List.of(BookingPhase.FUTURE, BookingPhase.CURRENT);
+
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transaction;
+    private final Duration granularity;
+    private final Duration maxSleep;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "booking-phase-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // ReentrantLock вместо synchronized: scheduleAt вызывается и из afterCommit запросов на виртуальных потоках
+    private final ReentrantLock lock = new ReentrantLock();
+    private ScheduledFuture<?> next;
+    private LocalDateTime nextAt;
+
+    public BookingPhaseScheduler(BookingRepository bookingRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${shareit.bookings.phase.granularity:1s}") Duration granularity,
+                                 @Value("${shareit.bookings.phase.max-sleep:1m}") Duration maxSleep) {
+        this.bookingRepository = bookingRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.granularity = granularity;
+        this.maxSleep = maxSleep;
+    }
+
+    // Догоняем переходы, пропущенные пока приложение не работало
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduleAt(LocalDateTime.now());
+    }
+
+    /**
+     * Будит планировщик к ближайшей границе новых бронирований после фиксации транзакции.
+     */
+    public void watchAfterCommit(Collection<Booking> bookings) {
+        LocalDateTime earliest = bookings.stream()
+                .map(booking -> BookingPhase.nextBoundary(booking.getPhase(), booking.getStart(), booking.getEnd()))
+                .filter(Objects::nonNull)
+                .min(LocalDateTime::compareTo)
+                .orElse(null);
+        if (earliest == null) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    scheduleAt(earliest);
+                }
+            });
+        } else {
+            scheduleAt(earliest);
+        }
+    }
+
+    /**
+     * Выполняет все наступившие переходы пачками по BATCH_SIZE, каждая в своей транзакции.
+     * Возвращает число переведённых бронирований.
+     */
+    public int advance(LocalDateTime now) {
+        Pageable batch = PageRequest.of(0, BATCH_SIZE);
+        // Сначала в PAST: будущие бронирования, которые успели и начаться, и закончиться, минуют CURRENT
+        int finished = transitionAll(() -> bookingRepository.findIdsEndedBefore(NOT_PAST, now, batch),
+                BookingPhase.PAST);
+        int started = transitionAll(() -> bookingRepository.findIdsStartedBefore(BookingPhase.FUTURE, now, batch),
+                BookingPhase.CURRENT);
+        if (finished + started > 0) {
+            log.debug("Фазы бронирований на {}: CURRENT {}, PAST {}", now, started, finished);
+        }
+        return finished + started;
+    }
+
+    private int transitionAll(Supplier<List<Long>> due, BookingPhase phase) {
+        int total = 0;
+        int updated;
+        do {
+            updated = Objects.requireNonNull(transaction.execute(status -> {
+                List<Long> ids = due.get();
+                return ids.isEmpty() ? 0 : bookingRepository.updatePhase(ids, phase);
+            }));
+            total += updated;
+        } while (updated == BATCH_SIZE);
+        return total;
+    }
+
+    private void tick() {
+        // Бронирования, созданные во время прохода, планируют собственный запуск
+        lock.lock();
+        try {
+            next = null;
+            nextAt = null;
+        } finally {
+            lock.unlock();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime following = now.plus(maxSleep);
+        try {
+            advance(now);
+            LocalDateTime boundary = transaction.execute(status -> earliest(
+                    bookingRepository.findEarliestStart(BookingPhase.FUTURE),
+                    bookingRepository.findEarliestEnd(BookingPhase.CURRENT)));
+            if (boundary != null && boundary.isBefore(following)) {
+                following = boundary;
+            }
+        } catch (RuntimeException e) {
+            log.error("Не удалось перевести фазы бронирований: {}", e.getMessage(), e);
+        }
+
+        scheduleAt(following);
+    }
+
+    // Переход в PAST наступает строго после конца, поэтому граница округляется вверх с запасом в одну миллисекунду
+    private void scheduleAt(LocalDateTime boundary) {
+        LocalDateTime wakeUp = roundUp(boundary.plusNanos(1_000_000));
+        lock.lock();
+        try {
+            if (next != null && !nextAt.isAfter(wakeUp)) {
+                return;
+            }
+            if (next != null) {
+                next.cancel(false);
+            }
+            long delay = Math.max(0, Duration.between(LocalDateTime.now(), wakeUp).toMillis());
+            nextAt = wakeUp;
+            next = executor.schedule(this::tick, delay, TimeUnit.MILLISECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private LocalDateTime roundUp(LocalDateTime time) {
+        long step = granularity.toMillis();
+        long millis = time.toInstant(ZoneOffset.UTC).toEpochMilli();
+        long rounded = (millis + step - 1) / step * step;
+        return LocalDateTime.ofEpochSecond(rounded / 1000, (int) (rounded % 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime earliest(LocalDateTime first, LocalDateTime second) {
+        if (first == null) {
+            return second;
+        }
+        return second == null || first.isBefore(second) ? first : second;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,106 +1,198 @@
 package ru.practicum.shareit.booking;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    // Все бронирования пользователя
-    @Query("SELECT b FROM Booking b WHERE b.booker.id = :bookerId ORDER BY b.start DESC")
-    List<Booking> findAllByBookerIdOrderByStartDesc(@Param("bookerId") Long bookerId);
+    // Листинги сразу собирают BookingListView из одного запроса с join на букера и вещь:
+    // сущности не попадают в контекст персистентности и не участвуют в dirty checking
+    String LISTING = "SELECT new ru.practicum.shareit.booking.BookingListView(" +
+            "b.id, b.start, b.end, b.status, u.id, u.name, u.email, i.id, i.name, i.description, i.available) " +
+            "FROM Booking b JOIN b.booker u JOIN b.item i ";
 
-    // Текущие бронирования пользователя
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.booker.id = :bookerId " +
-            "AND b.start <= :now " +
-            "AND b.end >= :now " +
-            "ORDER BY b.start DESC")
-    List<Booking> findCurrentByBookerId(@Param("bookerId") Long bookerId,
-                                        @Param("now") LocalDateTime now);
+    // Строки для дневных сводок stats: только вещь, даты и статус, без join
+    String STATS_VIEW = "SELECT new ru.practicum.shareit.booking.BookingStatsView(" +
+            "b.item.id, b.start, b.end, b.status) " +
+            "FROM Booking b ";
 
-    // Прошлые бронирования пользователя
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.booker.id = :bookerId " +
-            "AND b.end < :now " +
-            "ORDER BY b.start DESC")
-    List<Booking> findPastByBookerId(@Param("bookerId") Long bookerId,
-                                     @Param("now") LocalDateTime now);
+    // Keyset-пагинация по (start DESC, id DESC): строки строго после курсора
+    String AFTER_CURSOR = "AND (b.start < :cursorStart OR (b.start = :cursorStart AND b.id < :cursorId)) ";
 
-    // Будущие бронирования пользователя
-    @Query("SELECT b FROM Booking b " +
+    // Все бронирования пользователя
+    @Query(LISTING +
             "WHERE b.booker.id = :bookerId " +
-            "AND b.start > :now " +
-            "ORDER BY b.start DESC")
-    List<Booking> findFutureByBookerId(@Param("bookerId") Long bookerId,
-                                       @Param("now") LocalDateTime now);
+            AFTER_CURSOR +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<BookingListView> findAllByBookerIdOrderByStartDesc(@Param("bookerId") Long bookerId,
+                                                            @Param("cursorStart") LocalDateTime cursorStart,
+                                                            @Param("cursorId") Long cursorId,
+                                                            Pageable pageable);
+
+    // Текущие, прошлые или будущие бронирования пользователя: равенство по фазе вместо диапазона дат
+    @Query(LISTING +
+            "WHERE b.booker.id = :bookerId " +
+            "AND b.phase = :phase " +
+            AFTER_CURSOR +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<BookingListView> findAllByBookerIdAndPhase(@Param("bookerId") Long bookerId,
+                                                    @Param("phase") BookingPhase phase,
+                                                    @Param("cursorStart") LocalDateTime cursorStart,
+                                                    @Param("cursorId") Long cursorId,
+                                                    Pageable pageable);
 
     // Бронирования по статусу
-    @Query("SELECT b FROM Booking b WHERE b.booker.id = :bookerId AND b.status = :status ORDER BY b.start DESC")
-    List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(@Param("bookerId") Long bookerId,
-                                                             @Param("status") BookingStatus status);
+    @Query(LISTING +
+            "WHERE b.booker.id = :bookerId " +
+            "AND b.status = :status " +
+            AFTER_CURSOR +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<BookingListView> findAllByBookerIdAndStatusOrderByStartDesc(@Param("bookerId") Long bookerId,
+                                                                     @Param("status") BookingStatus status,
+                                                                     @Param("cursorStart") LocalDateTime cursorStart,
+                                                                     @Param("cursorId") Long cursorId,
+                                                                     Pageable pageable);
 
     // Все бронирования для вещей владельца
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.item.ownerEntity.id = :ownerId " +
-            "ORDER BY b.start DESC")
-    List<Booking> findAllByItemOwnerId(@Param("ownerId") Long ownerId);
-
-    // Текущие бронирования для вещей владельца
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.item.ownerEntity.id = :ownerId " +
-            "AND b.start <= :now " +
-            "AND b.end >= :now " +
-            "ORDER BY b.start DESC")
-    List<Booking> findCurrentByItemOwnerId(@Param("ownerId") Long ownerId,
-                                           @Param("now") LocalDateTime now);
-
-    // Прошлые бронирования для вещей владельца
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.item.ownerEntity.id = :ownerId " +
-            "AND b.end < :now " +
-            "ORDER BY b.start DESC")
-    List<Booking> findPastByItemOwnerId(@Param("ownerId") Long ownerId,
-                                        @Param("now") LocalDateTime now);
-
-    // Будущие бронирования для вещей владельца
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.item.ownerEntity.id = :ownerId " +
-            "AND b.start > :now " +
-            "ORDER BY b.start DESC")
-    List<Booking> findFutureByItemOwnerId(@Param("ownerId") Long ownerId,
-                                          @Param("now") LocalDateTime now);
+    @Query(LISTING +
+            "WHERE i.ownerEntity.id = :ownerId " +
+            AFTER_CURSOR +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<BookingListView> findAllByItemOwnerId(@Param("ownerId") Long ownerId,
+                                               @Param("cursorStart") LocalDateTime cursorStart,
+                                               @Param("cursorId") Long cursorId,
+                                               Pageable pageable);
+
+    // Текущие, прошлые или будущие бронирования для вещей владельца
+    @Query(LISTING +
+            "WHERE i.ownerEntity.id = :ownerId " +
+            "AND b.phase = :phase " +
+            AFTER_CURSOR +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<BookingListView> findAllByItemOwnerIdAndPhase(@Param("ownerId") Long ownerId,
+                                                       @Param("phase") BookingPhase phase,
+                                                       @Param("cursorStart") LocalDateTime cursorStart,
+                                                       @Param("cursorId") Long cursorId,
+                                                       Pageable pageable);
 
     // Бронирования по статусу для вещей владельца
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.item.ownerEntity.id = :ownerId " +
+    @Query(LISTING +
+            "WHERE i.ownerEntity.id = :ownerId " +
             "AND b.status = :status " +
-            "ORDER BY b.start DESC")
-    List<Booking> findAllByItemOwnerIdAndStatus(@Param("ownerId") Long ownerId,
-                                                @Param("status") BookingStatus status);
-
-    // Последнее завершённое бронирование для вещи
+            AFTER_CURSOR +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<BookingListView> findAllByItemOwnerIdAndStatus(@Param("ownerId") Long ownerId,
+                                                        @Param("status") BookingStatus status,
+                                                        @Param("cursorStart") LocalDateTime cursorStart,
+                                                        @Param("cursorId") Long cursorId,
+                                                        Pageable pageable);
+
+    // Последнее завершённое и ближайшее будущее подтверждённые бронирования для набора вещей одним запросом
+    @Query(value = "SELECT id, bookerId, itemId, kind FROM (" +
+            "SELECT b.id AS id, b.booker_id AS bookerId, b.item_id AS itemId, 'LAST' AS kind, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.end_date DESC, b.id DESC) AS rn " +
+            "FROM bookings b " +
+            "WHERE b.item_id IN (:itemIds) " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.end_date < :now " +
+            "UNION ALL " +
+            "SELECT b.id AS id, b.booker_id AS bookerId, b.item_id AS itemId, 'NEXT' AS kind, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date ASC, b.id ASC) AS rn " +
+            "FROM bookings b " +
+            "WHERE b.item_id IN (:itemIds) " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.start_date > :now" +
+            ") ranked " +
+            "WHERE rn = 1",
+            nativeQuery = true)
+    List<ItemBookingView> findLastAndNextBookingsForItems(@Param("itemIds") Collection<Long> itemIds,
+                                                          @Param("now") LocalDateTime now);
+
+    // Незавершённые бронирования вещи в указанных статусах, для индекса занятых интервалов
     @Query("SELECT b FROM Booking b " +
             "WHERE b.item.id = :itemId " +
-            "AND b.status = 'APPROVED' " +
-            "AND b.end < :now " +
-            "ORDER BY b.end DESC " +
-            "LIMIT 1")
-    Booking findLastBookingForItem(@Param("itemId") Long itemId,
-                                   @Param("now") LocalDateTime now);
+            "AND b.status IN :statuses " +
+            "AND b.end > :now")
+    List<Booking> findActiveByItemId(@Param("itemId") Long itemId,
+                                     @Param("statuses") Collection<BookingStatus> statuses,
+                                     @Param("now") LocalDateTime now);
 
-    // Ближайшее будущее бронирование для вещи
+    // То же для нескольких вещей одним запросом, для пакетного создания бронирований
     @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.id IN :itemIds " +
+            "AND b.status IN :statuses " +
+            "AND b.end > :now")
+    List<Booking> findActiveByItemIdIn(@Param("itemIds") Collection<Long> itemIds,
+                                       @Param("statuses") Collection<BookingStatus> statuses,
+                                       @Param("now") LocalDateTime now);
+
+    // Бронирования в фазе, начало которых уже наступило, для перевода FUTURE -> CURRENT пачками
+    @Query("SELECT b.id FROM Booking b " +
+            "WHERE b.phase = :phase " +
+            "AND b.start <= :now")
+    List<Long> findIdsStartedBefore(@Param("phase") BookingPhase phase,
+                                    @Param("now") LocalDateTime now,
+                                    Pageable pageable);
+
+    // Бронирования в фазах, конец которых уже прошёл, для перевода в PAST пачками
+    @Query("SELECT b.id FROM Booking b " +
+            "WHERE b.phase IN :phases " +
+            "AND b.end < :now")
+    List<Long> findIdsEndedBefore(@Param("phases") Collection<BookingPhase> phases,
+                                  @Param("now") LocalDateTime now,
+                                  Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.phase = :phase WHERE b.id IN :ids")
+    int updatePhase(@Param("ids") Collection<Long> ids, @Param("phase") BookingPhase phase);
+
+    // Ближайшие переходы: начало самого раннего будущего и конец самого раннего текущего бронирования
+    @Query("SELECT MIN(b.start) FROM Booking b WHERE b.phase = :phase")
+    LocalDateTime findEarliestStart(@Param("phase") BookingPhase phase);
+
+    @Query("SELECT MIN(b.end) FROM Booking b WHERE b.phase = :phase")
+    LocalDateTime findEarliestEnd(@Param("phase") BookingPhase phase);
+
+    // Бронирования вещи, пересекающие [from, to), для пересчёта её дневных сводок
+    @Query(STATS_VIEW +
             "WHERE b.item.id = :itemId " +
-            "AND b.status = 'APPROVED' " +
-            "AND b.start > :now " +
-            "ORDER BY b.start ASC " +
-            "LIMIT 1")
-    Booking findNextBookingForItem(@Param("itemId") Long itemId,
-                                   @Param("now") LocalDateTime now);
+            "AND b.start < :to " +
+            "AND b.end > :from")
+    List<BookingStatsView> findStatsByItemIdBetween(@Param("itemId") Long itemId,
+                                                    @Param("from") LocalDateTime from,
+                                                    @Param("to") LocalDateTime to);
+
+    // Все бронирования вещей с id из [fromItemId, toItemId], для заполнения сводок из истории частями
+    @Query(STATS_VIEW +
+            "WHERE b.item.id BETWEEN :fromItemId AND :toItemId")
+    List<BookingStatsView> findStatsByItemIdRange(@Param("fromItemId") Long fromItemId,
+                                                  @Param("toItemId") Long toItemId);
+
+    // Бронирование вместе с вещью и букером одним запросом: хватает и для проверки прав, и для ответа.
+    // Владелец вещи не загружается, его id берётся из внешнего ключа items.owner_id
+    @Query("SELECT b FROM Booking b " +
+            "JOIN FETCH b.item " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.id = :bookingId")
+    Optional<Booking> findWithItemAndBookerById(@Param("bookingId") Long bookingId);
+
+    // Смена статуса только из WAITING; контекст очищается, чтобы загруженная ранее сущность
+    // с устаревшей версией не попала в dirty checking
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b " +
+            "SET b.status = :status, b.version = b.version + 1 " +
+            "WHERE b.id = :bookingId " +
+            "AND b.status = 'WAITING'")
+    int updateStatusIfWaiting(@Param("bookingId") Long bookingId,
+                              @Param("status") BookingStatus status);
 
     // Проверка, брал ли пользователь вещь в аренду
     @Query("SELECT COUNT(b) > 0 FROM Booking b " +
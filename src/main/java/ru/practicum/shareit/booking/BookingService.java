@@ -6,11 +6,15 @@ public interface BookingService {
 
     BookingResponseDto addBooking(Long userId, BookingDto bookingDto);
 
+    List<BookingBatchResultDto> addBookings(Long userId, List<BookingDto> bookingDtos);
+
     BookingResponseDto approveBooking(Long userId, Long bookingId, Boolean approved);
 
     BookingResponseDto getBookingById(Long userId, Long bookingId);
 
-    List<BookingResponseDto> getBookingsByUser(Long userId, BookingState state);
+    List<BookingResponseDto> getBookingsByUser(Long userId, BookingState state,
+                                               BookingCursor cursor, int from, int size);
 
-    List<BookingResponseDto> getBookingsByOwner(Long userId, BookingState state);
+    List<BookingResponseDto> getBookingsByOwner(Long userId, BookingState state,
+                                                BookingCursor cursor, int from, int size);
 }
\ No newline at end of file
@@ -1,30 +1,58 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.OffsetPageRequest;
+import ru.practicum.shareit.datasource.ReadYourWrites;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.outbox.Outbox;
 import ru.practicum.shareit.user.User;
-import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@Timed(value = "shareit.service", histogram = true, percentiles = {0.5, 0.95, 0.99})
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
 
+    static final int MAX_BATCH_SIZE = 500;
+    static final Duration MAX_BOOKING_DURATION = Duration.ofDays(366);
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
     private final BookingRepository bookingRepository;
-    private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final UserService userService;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ReadYourWrites readYourWrites;
+    private final BookingEventBroker bookingEventBroker;
+    private final BookingPhaseScheduler bookingPhaseScheduler;
+    private final Outbox outbox;
 
     @Override
     @Transactional
@@ -33,35 +61,148 @@ public class BookingServiceImpl implements BookingService {
                 userId, bookingDto.getItemId());
 
         // Проверяем пользователя
-        User booker = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь с id=" + userId + " не найден"));
+        UserDto booker = userService.getUserById(userId);
 
         // Проверяем вещь
         Item item = itemRepository.findById(bookingDto.getItemId())
                 .orElseThrow(() -> new NotFoundException("Вещь с id=" + bookingDto.getItemId() + " не найдена"));
 
-        // Проверяем, что пользователь не владелец вещи - 404
-        if (item.getOwner().equals(userId)) {
-            throw new NotFoundException("Нельзя забронировать собственную вещь");
+        checkBookable(userId, item, bookingDto.getStart(), bookingDto.getEnd());
+
+        // Сначала вставляем бронирование: идентификатор из последовательности не требует вставки, поэтому
+        // сбрасываем её сразу, и на Postgres пересечение отсекает ограничение bookings_no_overlap - 409
+        Booking booking = BookingMapper.toBooking(bookingDto, userId);
+        Booking savedBooking;
+        try {
+            savedBooking = bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            if (!isOverlapViolation(e)) {
+                throw e;
+            }
+            throw new ConflictException("Вещь с id=" + item.getId() + " уже забронирована на пересекающиеся даты");
         }
 
-        // Проверяем доступность вещи - 400 Bad Request (бизнес-логика)
-        if (!item.getAvailable()) {
-            throw new BadRequestException("Вещь недоступна для бронирования");
+        // Затем занимаем даты в индексе вещи: пересечение с уже занятыми - 409 Conflict, и вставка откатывается
+        bookingIntervalIndex.reserve(item.getId(), savedBooking.getId(),
+                savedBooking.getStart(), savedBooking.getEnd());
+
+        bookingPhaseScheduler.watchAfterCommit(List.of(savedBooking));
+
+        // Следующие чтения автора идут на основную базу, пока реплики не получат бронирование
+        readYourWrites.markWritten(userId);
+
+        BookingResponseDto response = BookingMapper.toBookingResponseDto(savedBooking, booker, item);
+        bookingEventBroker.publishAfterCommit(response, userId, item.getOwner());
+        outbox.add(BookingEventType.BOOKING_CREATED.name(), item.getId(), response);
+
+        log.info("Бронирование создано с id={}", savedBooking.getId());
+        return response;
+    }
+
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> addBookings(Long userId, List<BookingDto> bookingDtos) {
+        log.info("Пакетное создание {} бронирований пользователем с id={}", bookingDtos.size(), userId);
+
+        if (bookingDtos.isEmpty() || bookingDtos.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Пакет должен содержать от 1 до " + MAX_BATCH_SIZE + " бронирований");
         }
 
-        // Проверяем корректность дат - 400 Bad Request (бизнес-логика)
-        if (bookingDto.getEnd().isBefore(bookingDto.getStart()) ||
-                bookingDto.getEnd().equals(bookingDto.getStart())) {
-            throw new BadRequestException("Дата окончания должна быть после даты начала");
+        UserDto booker = userService.getUserById(userId);
+
+        // Все вещи пакета одним запросом
+        Map<Long, Item> items = itemRepository.findAllById(bookingDtos.stream()
+                        .filter(Objects::nonNull)
+                        .map(BookingDto::getItemId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        BookingBatchResultDto[] results = new BookingBatchResultDto[bookingDtos.size()];
+        List<Integer> accepted = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            BookingDto bookingDto = bookingDtos.get(i);
+            try {
+                if (bookingDto == null) {
+                    throw new BadRequestException("Позиция пакета не может быть пустой");
+                }
+                checkBatchEntry(userId, bookingDto, items.get(bookingDto.getItemId()), now);
+                accepted.add(i);
+            } catch (NotFoundException e) {
+                results[i] = BookingBatchResultDto.failed(i, HttpStatus.NOT_FOUND.value(), e.getMessage());
+            } catch (BadRequestException e) {
+                results[i] = BookingBatchResultDto.failed(i, HttpStatus.BAD_REQUEST.value(), e.getMessage());
+            }
         }
 
-        // Создаём бронирование
-        Booking booking = BookingMapper.toBooking(bookingDto, userId);
-        Booking savedBooking = bookingRepository.save(booking);
+        // Пересечения за один проход: позиции, упорядоченные по вещи и началу, сравниваются с уже занятыми
+        // датами из индекса и с концом последней принятой позиции той же вещи
+        bookingIntervalIndex.preload(accepted.stream().map(i -> bookingDtos.get(i).getItemId()).toList());
+        accepted.sort(Comparator.comparing((Integer i) -> bookingDtos.get(i).getItemId())
+                .thenComparing(i -> bookingDtos.get(i).getStart()));
+        List<Booking> savedBookings = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        Long previousItemId = null;
+        LocalDateTime previousEnd = null;
+        for (Integer i : accepted) {
+            BookingDto bookingDto = bookingDtos.get(i);
+            boolean overlapsBatch = bookingDto.getItemId().equals(previousItemId)
+                    && bookingDto.getStart().isBefore(previousEnd);
+            if (overlapsBatch || !bookingIntervalIndex.isFree(bookingDto.getItemId(),
+                    bookingDto.getStart(), bookingDto.getEnd())) {
+                results[i] = batchConflict(i, bookingDto.getItemId());
+                continue;
+            }
+
+            // Даты занимаются до вставки, по одной позиции: идентификатор выдаёт последовательность
+            // при save, а сама вставка откладывается до общего сброса пакета. Даты, занятые параллельным
+            // запросом после проверки выше, отклоняют только эту позицию
+            Booking booking = bookingRepository.save(BookingMapper.toBooking(bookingDto, userId));
+            try {
+                bookingIntervalIndex.reserve(booking.getItemId(), booking.getId(),
+                        booking.getStart(), booking.getEnd());
+            } catch (ConflictException e) {
+                bookingRepository.delete(booking);
+                results[i] = batchConflict(i, bookingDto.getItemId());
+                continue;
+            }
+            previousItemId = bookingDto.getItemId();
+            previousEnd = bookingDto.getEnd();
+            savedBookings.add(booking);
+            positions.add(i);
+        }
 
-        log.info("Бронирование создано с id={}", savedBooking.getId());
-        return BookingMapper.toBookingResponseDto(savedBooking, booker, item);
+        // Вставка JDBC-пакетами одним сбросом. Пересечение здесь возможно только с бронированием другого
+        // экземпляра приложения, и после ошибки вставки транзакция Postgres уже прервана - 409 на весь пакет
+        try {
+            bookingRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (!isOverlapViolation(e)) {
+                throw e;
+            }
+            throw new ConflictException("Вещи пакета уже забронированы на пересекающиеся даты");
+        }
+
+        for (int k = 0; k < savedBookings.size(); k++) {
+            Booking savedBooking = savedBookings.get(k);
+            Item item = items.get(savedBooking.getItemId());
+            BookingResponseDto response = BookingMapper.toBookingResponseDto(savedBooking, booker, item);
+            bookingEventBroker.publishAfterCommit(response, userId, item.getOwner());
+            outbox.add(BookingEventType.BOOKING_CREATED.name(), item.getId(), response);
+            int i = positions.get(k);
+            results[i] = BookingBatchResultDto.created(i, response);
+        }
+
+        if (!savedBookings.isEmpty()) {
+            bookingPhaseScheduler.watchAfterCommit(savedBookings);
+            readYourWrites.markWritten(userId);
+        }
+
+        log.info("Пакет бронирований пользователя с id={}: создано {} из {}",
+                userId, savedBookings.size(), bookingDtos.size());
+        return Arrays.asList(results);
     }
 
     @Override
@@ -70,13 +211,11 @@ public class BookingServiceImpl implements BookingService {
         log.info("Подтверждение/отклонение бронирования с id={} пользователем с id={}",
                 bookingId, userId);
 
-        // Получаем бронирование
-        Booking booking = bookingRepository.findById(bookingId)
+        // Бронирование, вещь и букер одним запросом
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Бронирование с id=" + bookingId + " не найдено"));
-
-        // Получаем вещь
-        Item item = itemRepository.findById(booking.getItemId())
-                .orElseThrow(() -> new NotFoundException("Вещь с id=" + booking.getItemId() + " не найдена"));
+        Item item = booking.getItem();
+        User booker = booking.getBooker();
 
         // Проверяем, что пользователь - владелец вещи - 403 Forbidden (недостаточно прав)
         if (!item.getOwner().equals(userId)) {
@@ -88,105 +227,166 @@ public class BookingServiceImpl implements BookingService {
             throw new BadRequestException("Бронирование уже обработано");
         }
 
-        // Обновляем статус
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        Booking updatedBooking = bookingRepository.save(booking);
+        // Обновляем статус условным UPDATE: из параллельных запросов по одному бронированию
+        // строку из WAITING переведёт только первый, остальные получат 400
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (bookingRepository.updateStatusIfWaiting(bookingId, status) == 0) {
+            throw new BadRequestException("Бронирование уже обработано");
+        }
+        booking.setStatus(status);
 
-        // Получаем букера
-        User booker = userRepository.findById(booking.getBookerId())
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        // Отклонённое бронирование освобождает даты
+        if (!approved) {
+            bookingIntervalIndex.releaseAfterCommit(item.getId(), bookingId);
+        }
+        readYourWrites.markWritten(userId);
+
+        BookingResponseDto response = BookingMapper.toBookingResponseDto(booking, booker, item);
+        bookingEventBroker.publishAfterCommit(response, booker.getId(), userId);
+        outbox.add((approved ? BookingEventType.BOOKING_APPROVED : BookingEventType.BOOKING_REJECTED).name(),
+                item.getId(), response);
 
         log.info("Бронирование с id={} {}", bookingId, approved ? "подтверждено" : "отклонено");
-        return BookingMapper.toBookingResponseDto(updatedBooking, booker, item);
+        return response;
     }
 
     @Override
     public BookingResponseDto getBookingById(Long userId, Long bookingId) {
         log.info("Получение бронирования с id={} пользователем с id={}", bookingId, userId);
 
-        // Получаем бронирование
-        Booking booking = bookingRepository.findById(bookingId)
+        // Бронирование, вещь и букер одним запросом
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Бронирование с id=" + bookingId + " не найдено"));
-
-        // Получаем вещь
-        Item item = itemRepository.findById(booking.getItemId())
-                .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
+        Item item = booking.getItem();
 
         if (!booking.getBookerId().equals(userId) && !item.getOwner().equals(userId)) {
             throw new ForbiddenException("Просмотреть бронирование может только автор или владелец вещи");
         }
 
-        // Получаем букера
-        User booker = userRepository.findById(booking.getBookerId())
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
-
-        return BookingMapper.toBookingResponseDto(booking, booker, item);
+        return BookingMapper.toBookingResponseDto(booking, booking.getBooker(), item);
     }
 
     @Override
-    public List<BookingResponseDto> getBookingsByUser(Long userId, BookingState state) {
-        log.info("Получение бронирований пользователя с id={}, state={}", userId, state);
+    public List<BookingResponseDto> getBookingsByUser(Long userId, BookingState state,
+                                               BookingCursor cursor, int from, int size) {
+        log.info("Получение бронирований пользователя с id={}, state={}, cursor={}, from={}, size={}",
+                userId, state, cursor, from, size);
 
         // Проверяем существование пользователя
-        if (!userRepository.existsById(userId)) {
+        if (!userService.userExists(userId)) {
             throw new NotFoundException("Пользователь с id=" + userId + " не найден");
         }
 
-        List<Booking> bookings = getBookingsByState(userId, state, false);
+        List<BookingListView> bookings = getBookingsByState(userId, state, false, cursor, from, size);
 
-        return bookings.stream()
-                .map(this::mapToResponseDto)
-                .collect(Collectors.toList());
+        return mapToResponseDtos(bookings);
     }
 
     @Override
-    public List<BookingResponseDto> getBookingsByOwner(Long userId, BookingState state) {
-        log.info("Получение бронирований владельца с id={}, state={}", userId, state);
+    public List<BookingResponseDto> getBookingsByOwner(Long userId, BookingState state,
+                                                BookingCursor cursor, int from, int size) {
+        log.info("Получение бронирований владельца с id={}, state={}, cursor={}, from={}, size={}",
+                userId, state, cursor, from, size);
 
         // Проверяем существование пользователя
-        if (!userRepository.existsById(userId)) {
+        if (!userService.userExists(userId)) {
             throw new NotFoundException("Пользователь с id=" + userId + " не найден");
         }
 
-        List<Booking> bookings = getBookingsByState(userId, state, true);
+        List<BookingListView> bookings = getBookingsByState(userId, state, true, cursor, from, size);
 
-        return bookings.stream()
-                .map(this::mapToResponseDto)
-                .collect(Collectors.toList());
+        return mapToResponseDtos(bookings);
     }
 
-    private List<Booking> getBookingsByState(Long userId, BookingState state, boolean isOwner) {
-        LocalDateTime now = LocalDateTime.now();
+    private List<BookingListView> getBookingsByState(Long userId, BookingState state, boolean isOwner,
+                                             BookingCursor cursor, int from, int size) {
+        if (from < 0 || size <= 0) {
+            throw new BadRequestException("Некорректные параметры пагинации: from=" + from + ", size=" + size);
+        }
+
+        // С курсором страница ищется по ключу и смещение не нужно; from оставлен для совместимости
+        Pageable page = cursor != null ? PageRequest.of(0, size) : new OffsetPageRequest(from, size);
+        BookingCursor after = cursor != null ? cursor : BookingCursor.first();
+        LocalDateTime start = after.getStart();
+        Long id = after.getId();
 
         return switch (state) {
             case ALL -> isOwner
-                    ? bookingRepository.findAllByItemOwnerId(userId)
-                    : bookingRepository.findAllByBookerIdOrderByStartDesc(userId);
-            case CURRENT -> isOwner
-                    ? bookingRepository.findCurrentByItemOwnerId(userId, now)
-                    : bookingRepository.findCurrentByBookerId(userId, now);
-            case PAST -> isOwner
-                    ? bookingRepository.findPastByItemOwnerId(userId, now)
-                    : bookingRepository.findPastByBookerId(userId, now);
-            case FUTURE -> isOwner
-                    ? bookingRepository.findFutureByItemOwnerId(userId, now)
-                    : bookingRepository.findFutureByBookerId(userId, now);
+                    ? bookingRepository.findAllByItemOwnerId(userId, start, id, page)
+                    : bookingRepository.findAllByBookerIdOrderByStartDesc(userId, start, id, page);
+            case CURRENT, PAST, FUTURE -> isOwner
+                    ? bookingRepository.findAllByItemOwnerIdAndPhase(userId, BookingPhase.valueOf(state.name()),
+                            start, id, page)
+                    : bookingRepository.findAllByBookerIdAndPhase(userId, BookingPhase.valueOf(state.name()),
+                            start, id, page);
             case WAITING -> isOwner
-                    ? bookingRepository.findAllByItemOwnerIdAndStatus(userId, BookingStatus.WAITING)
-                    : bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING);
+                    ? bookingRepository.findAllByItemOwnerIdAndStatus(userId, BookingStatus.WAITING,
+                            start, id, page)
+                    : bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING,
+                            start, id, page);
             case REJECTED -> isOwner
-                    ? bookingRepository.findAllByItemOwnerIdAndStatus(userId, BookingStatus.REJECTED)
-                    : bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED);
+                    ? bookingRepository.findAllByItemOwnerIdAndStatus(userId, BookingStatus.REJECTED,
+                            start, id, page)
+                    : bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED,
+                            start, id, page);
         };
     }
 
-    private BookingResponseDto mapToResponseDto(Booking booking) {
-        User booker = userRepository.findById(booking.getBookerId())
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+    private static BookingBatchResultDto batchConflict(int index, Long itemId) {
+        return BookingBatchResultDto.failed(index, HttpStatus.CONFLICT.value(),
+                "Вещь с id=" + itemId + " уже забронирована на пересекающиеся даты");
+    }
+
+    private void checkBatchEntry(Long userId, BookingDto bookingDto, Item item, LocalDateTime now) {
+        if (bookingDto.getItemId() == null || bookingDto.getStart() == null || bookingDto.getEnd() == null) {
+            throw new BadRequestException("ID вещи, дата начала и дата окончания обязательны");
+        }
+        if (bookingDto.getStart().isBefore(now)) {
+            throw new BadRequestException("Дата начала не может быть в прошлом");
+        }
+        if (item == null) {
+            throw new NotFoundException("Вещь с id=" + bookingDto.getItemId() + " не найдена");
+        }
+        checkBookable(userId, item, bookingDto.getStart(), bookingDto.getEnd());
+    }
+
+    private void checkBookable(Long userId, Item item, LocalDateTime start, LocalDateTime end) {
+        // Проверяем, что пользователь не владелец вещи - 404
+        if (item.getOwner().equals(userId)) {
+            throw new NotFoundException("Нельзя забронировать собственную вещь");
+        }
+
+        // Проверяем доступность вещи - 400 Bad Request (бизнес-логика)
+        if (!item.getAvailable()) {
+            throw new BadRequestException("Вещь недоступна для бронирования");
+        }
+
+        // Проверяем корректность дат - 400 Bad Request (бизнес-логика)
+        if (!end.isAfter(start)) {
+            throw new BadRequestException("Дата окончания должна быть после даты начала");
+        }
+        if (Duration.between(start, end).compareTo(MAX_BOOKING_DURATION) > 0) {
+            throw new BadRequestException("Бронирование не может быть длиннее " +
+                    MAX_BOOKING_DURATION.toDays() + " дней");
+        }
+    }
 
-        Item item = itemRepository.findById(booking.getItemId())
-                .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
+    // Букер и вещь уже в строке проекции, дополнительных запросов нет
+    private List<BookingResponseDto> mapToResponseDtos(List<BookingListView> bookings) {
+        return bookings.stream()
+                .map(BookingMapper::toBookingResponseDto)
+                .collect(Collectors.toList());
+    }
 
-        return BookingMapper.toBookingResponseDto(booking, booker, item);
+    // Пересечение дат - только нарушение исключающего ограничения bookings_no_overlap (SQLState 23P01);
+    // прочие нарушения целостности остаются ошибками сервера, а не конфликтом бронирования
+    private static boolean isOverlapViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException
+                    && EXCLUSION_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
     }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * Колонки бронирования, из которых строятся дневные сводки.
+ */
+public record BookingStatsView(Long itemId,
+                               LocalDateTime start,
+                               LocalDateTime end,
+                               BookingStatus status) {
+}
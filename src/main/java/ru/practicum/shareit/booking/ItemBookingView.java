@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking;
+
+/**
+ * Проекция последнего или следующего бронирования вещи, без загрузки сущности Booking.
+ */
+public interface ItemBookingView {
+
+    String LAST = "LAST";
+    String NEXT = "NEXT";
+
+    Long getId();
+
+    Long getBookerId();
+
+    Long getItemId();
+
+    // LAST или NEXT
+    String getKind();
+}
@@ -0,0 +1,170 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Почасовая карта занятости одной вещи: бит часа h установлен, если в [h, h + 1) попадает хотя бы одно
+ * занятое время. Биты лежат в long[], который покрывает только диапазон от самого раннего до самого позднего
+ * занятого часа и расширяется по мере добавления интервалов. Карта ограничена горизонтом [minHour, maxHour):
+ * части интервалов за ним отбрасываются, и о часах вне горизонта карта ничего не знает (см. covers).
+ * Не потокобезопасна, вызывающий держит блокировку вещи.
+ */
+class OccupancyBitmap {
+
+    private static final long SECONDS_PER_HOUR = 3600;
+
+    private final long minHour;
+    private final long maxHour;
+    // Номер часа, с которого начинается words[0]; всегда кратен 64
+    private long base;
+    private long[] words = new long[0];
+
+    OccupancyBitmap(long minHour, long maxHour) {
+        this.minHour = minHour;
+        this.maxHour = maxHour;
+    }
+
+    static long floorHour(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), SECONDS_PER_HOUR);
+    }
+
+    static long ceilHour(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC) + SECONDS_PER_HOUR - 1, SECONDS_PER_HOUR);
+    }
+
+    static LocalDateTime timeOf(long hour) {
+        return LocalDateTime.ofEpochSecond(hour * SECONDS_PER_HOUR, 0, ZoneOffset.UTC);
+    }
+
+    void set(long fromHour, long toHour) {
+        long from = Math.max(fromHour, minHour);
+        long to = Math.min(toHour, maxHour);
+        if (from >= to) {
+            return;
+        }
+        ensureCovers(from, to);
+        apply(from, to, true);
+    }
+
+    /**
+     * Проверяет, что часы [fromHour, toHour) внутри горизонта и ответы isClear и freeRuns для них точны.
+     */
+    boolean covers(long fromHour, long toHour) {
+        return fromHour >= minHour && toHour <= maxHour;
+    }
+
+    void clear(long fromHour, long toHour) {
+        long from = Math.max(fromHour, base);
+        long to = Math.min(toHour, base + (long) words.length * Long.SIZE);
+        if (from < to) {
+            apply(from, to, false);
+        }
+    }
+
+    /**
+     * Проверяет, что в часах [fromHour, toHour) нет ни одного занятого.
+     */
+    boolean isClear(long fromHour, long toHour) {
+        long from = Math.max(fromHour, base);
+        long to = Math.min(toHour, base + (long) words.length * Long.SIZE);
+        for (long hour = from; hour < to; ) {
+            int word = (int) ((hour - base) >>> 6);
+            long wordEnd = base + (long) (word + 1) * Long.SIZE;
+            long mask = mask(hour, Math.min(to, wordEnd));
+            if ((words[word] & mask) != 0) {
+                return false;
+            }
+            hour = wordEnd;
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает свободные отрезки часов внутри [fromHour, toHour) парами {начало, конец}.
+     */
+    List<long[]> freeRuns(long fromHour, long toHour) {
+        List<long[]> runs = new ArrayList<>();
+        long hour = fromHour;
+        while (hour < toHour) {
+            long busy = nextSet(hour, toHour);
+            if (busy > hour) {
+                runs.add(new long[]{hour, busy});
+            }
+            hour = nextClear(busy, toHour);
+        }
+        return runs;
+    }
+
+    private long nextSet(long fromHour, long toHour) {
+        long end = base + (long) words.length * Long.SIZE;
+        long hour = Math.max(fromHour, base);
+        if (hour >= end || hour >= toHour) {
+            return toHour;
+        }
+        int word = (int) ((hour - base) >>> 6);
+        long bits = words[word] & (-1L << ((hour - base) & 63));
+        while (bits == 0) {
+            if (++word == words.length) {
+                return toHour;
+            }
+            bits = words[word];
+        }
+        return Math.min(toHour, base + (long) word * Long.SIZE + Long.numberOfTrailingZeros(bits));
+    }
+
+    private long nextClear(long fromHour, long toHour) {
+        long end = base + (long) words.length * Long.SIZE;
+        if (fromHour < base || fromHour >= end || fromHour >= toHour) {
+            return Math.min(fromHour, toHour);
+        }
+        int word = (int) ((fromHour - base) >>> 6);
+        long bits = ~words[word] & (-1L << ((fromHour - base) & 63));
+        while (bits == 0) {
+            if (++word == words.length) {
+                return Math.min(end, toHour);
+            }
+            bits = ~words[word];
+        }
+        return Math.min(toHour, base + (long) word * Long.SIZE + Long.numberOfTrailingZeros(bits));
+    }
+
+    private void apply(long fromHour, long toHour, boolean value) {
+        for (long hour = fromHour; hour < toHour; ) {
+            int word = (int) ((hour - base) >>> 6);
+            long wordEnd = base + (long) (word + 1) * Long.SIZE;
+            long mask = mask(hour, Math.min(toHour, wordEnd));
+            words[word] = value ? words[word] | mask : words[word] & ~mask;
+            hour = wordEnd;
+        }
+    }
+
+    // Биты часов [fromHour, toHour) внутри одного слова
+    private long mask(long fromHour, long toHour) {
+        int from = (int) ((fromHour - base) & 63);
+        int count = (int) (toHour - fromHour);
+        long bits = count == Long.SIZE ? -1L : (1L << count) - 1;
+        return bits << from;
+    }
+
+    private void ensureCovers(long fromHour, long toHour) {
+        long end = base + (long) words.length * Long.SIZE;
+        long newBase = Math.floorDiv(fromHour, Long.SIZE) * Long.SIZE;
+        long newEnd = Math.floorDiv(toHour + Long.SIZE - 1, Long.SIZE) * Long.SIZE;
+        if (words.length > 0) {
+            if (fromHour >= base && toHour <= end) {
+                return;
+            }
+            newBase = Math.min(newBase, base);
+            newEnd = Math.max(newEnd, end);
+        }
+        long[] grown = new long[(int) ((newEnd - newBase) / Long.SIZE)];
+        if (words.length > 0) {
+            System.arraycopy(words, 0, grown, (int) ((base - newBase) / Long.SIZE), words.length);
+        }
+        base = newBase;
+        words = grown;
+    }
+}
@@ -13,6 +13,19 @@ public class CommentMapper {
         return dto;
     }
 
+    public static CommentDto toCommentDto(CommentView comment, String authorName) {
+        CommentDto dto = new CommentDto();
+        dto.setId(comment.getId());
+        dto.setText(comment.getText());
+        dto.setAuthorName(authorName);
+        dto.setCreated(comment.getCreated());
+        return dto;
+    }
+
+    public static CommentView toCommentView(Comment comment) {
+        return new CommentView(comment.getId(), comment.getText(), comment.getAuthorId(), comment.getCreated());
+    }
+
     public static Comment toComment(CommentDto commentDto, Long itemId, Long authorId) {
         Comment comment = new Comment();
         comment.setText(commentDto.getText());
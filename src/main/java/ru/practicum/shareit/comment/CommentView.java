@@ -0,0 +1,19 @@
+package ru.practicum.shareit.comment;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Комментарий в кэшированной карточке вещи. Вместо имени автора хранится его id: имя подставляется
+ * при чтении из кэша пользователей, поэтому переименование автора не требует сбрасывать карточки вещей.
+ */
+@Getter
+@AllArgsConstructor
+public class CommentView {
+    private final Long id;
+    private final String text;
+    private final Long authorId;
+    private final LocalDateTime created;
+}
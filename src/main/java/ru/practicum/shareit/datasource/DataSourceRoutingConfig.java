@@ -0,0 +1,65 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class DataSourceRoutingConfig {
+
+    /**
+     * Включается, когда задана хотя бы одна реплика; без неё используется автоконфигурация Spring Boot.
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "shareit.datasource", name = "replicas[0].url")
+    static class ReplicaRouting {
+
+        private static final long REPLICA_CONNECTION_TIMEOUT_MS = 1000;
+
+        @Bean
+        @ConfigurationProperties("spring.datasource.hikari")
+        public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+            return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+
+        @Bean
+        public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                                 ReplicaProperties properties,
+                                                                 ReadYourWrites readYourWrites) {
+            List<DataSource> replicas = new ArrayList<>();
+            for (int i = 0; i < properties.getReplicas().size(); i++) {
+                ReplicaProperties.Replica replica = properties.getReplicas().get(i);
+                HikariDataSource dataSource = new HikariDataSource();
+                dataSource.setPoolName("replica-" + i);
+                dataSource.setJdbcUrl(replica.getUrl());
+                dataSource.setUsername(replica.getUsername());
+                dataSource.setPassword(replica.getPassword());
+                dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+                dataSource.setReadOnly(true);
+                dataSource.setConnectionTimeout(REPLICA_CONNECTION_TIMEOUT_MS);
+                // Недоступная при старте реплика не должна мешать запуску: её отметит проверка здоровья
+                dataSource.setInitializationFailTimeout(-1);
+                replicas.add(dataSource);
+            }
+            return new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWrites,
+                    properties.getHealthCheckInterval());
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+            return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Согласованность "читаю свои записи": после записи пользователь некоторое время читает с основной базы,
+ * пока реплики не догонят её. Пользователь текущего запроса выставляется {@link ReadYourWritesFilter}.
+ */
+@Component
+public class ReadYourWrites {
+
+    private final ThreadLocal<Long> currentUser = new ThreadLocal<>();
+    private final ThreadLocal<Boolean> primaryReads = new ThreadLocal<>();
+    private final Cache<Long, Boolean> recentWriters;
+    private final boolean enabled;
+
+    public ReadYourWrites(ReplicaProperties properties) {
+        this.enabled = properties.isReadYourWrites();
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getReadYourWritesWindow())
+                .maximumSize(100_000)
+                .build();
+    }
+
+    /**
+     * Отмечает запись пользователя; окно отсчитывается заново после коммита текущей транзакции.
+     */
+    public void markWritten(Long userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        recentWriters.put(userId, Boolean.TRUE);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentWriters.put(userId, Boolean.TRUE);
+                }
+            });
+        }
+    }
+
+    /**
+     * Выполняет чтение так, что соединение, взятое внутри него, идёт на основную базу. Нужно загрузчикам кэшей:
+     * их значение живёт дольше отставания реплик. Новой транзакции не открывает, поэтому второго соединения
+     * из пула не берёт; если транзакция вызывающего уже получила соединение с реплики, читает через него.
+     */
+    public <T> T readPrimary(Supplier<T> reader) {
+        Boolean previous = primaryReads.get();
+        primaryReads.set(Boolean.TRUE);
+        try {
+            return reader.get();
+        } finally {
+            if (previous == null) {
+                primaryReads.remove();
+            }
+        }
+    }
+
+    /**
+     * Должна ли читающая транзакция текущего запроса идти на основную базу.
+     */
+    public boolean mustReadPrimary() {
+        if (primaryReads.get() != null) {
+            return true;
+        }
+        Long userId = currentUser.get();
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+
+    public void setCurrentUser(Long userId) {
+        currentUser.set(userId);
+    }
+
+    public void clearCurrentUser() {
+        currentUser.remove();
+    }
+}
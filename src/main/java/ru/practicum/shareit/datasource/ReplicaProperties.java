@@ -0,0 +1,35 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Реплики для чтения: shareit.datasource.replicas[n].url/username/password.
+ * Пока список пуст, приложение работает с одним источником spring.datasource.
+ */
+@Data
+@ConfigurationProperties("shareit.datasource")
+public class ReplicaProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    // Период проверки доступности реплик
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    // Сколько времени после записи читающие транзакции пользователя идут на основную базу
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    private boolean readYourWrites = true;
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
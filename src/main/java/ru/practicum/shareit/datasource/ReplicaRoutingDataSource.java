@@ -0,0 +1,113 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Направляет читающие транзакции (readOnly = true) на реплики по кругу, остальное — на основную базу.
+ * Недоступные реплики пропускаются до следующей успешной проверки; если здоровых реплик нет, чтение
+ * идёт на основную базу. Решение принимается при получении соединения, поэтому источник нужно оборачивать
+ * в LazyConnectionDataSourceProxy: иначе соединение берётся до того, как транзакция помечена как readOnly.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica-";
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final List<DataSource> replicas;
+    private final AtomicIntegerArray healthy;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ReadYourWrites readYourWrites;
+    private final Duration healthCheckInterval;
+    private final ScheduledExecutorService healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-health-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReadYourWrites readYourWrites,
+                                    Duration healthCheckInterval) {
+        this.replicas = List.copyOf(replicas);
+        this.healthy = new AtomicIntegerArray(replicas.size());
+        this.readYourWrites = readYourWrites;
+        this.healthCheckInterval = healthCheckInterval;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(REPLICA + i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        checkReplicas();
+        long period = healthCheckInterval.toMillis();
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        healthChecker.shutdownNow();
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || readYourWrites.mustReadPrimary()) {
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            int replica = (start + i) % size;
+            if (healthy.get(replica) == 1) {
+                return REPLICA + replica;
+            }
+        }
+        return PRIMARY;
+    }
+
+    void checkReplicas() {
+        for (int i = 0; i < replicas.size(); i++) {
+            boolean up = isValid(replicas.get(i));
+            int previous = healthy.getAndSet(i, up ? 1 : 0);
+            if (previous != (up ? 1 : 0)) {
+                log.info("Реплика {} {}", i, up ? "доступна" : "недоступна, чтение переключено на другие источники");
+            }
+        }
+    }
+
+    private static boolean isValid(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Триграммный инвертированный индекс в памяти для H2 и тестов.
+ * Хранит только доступные вещи; кандидаты из индекса перепроверяются поиском подстроки
+ * и ранжируются: сначала совпадения в названии, затем только в описании.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class InMemoryItemSearchIndex implements ItemSearchIndex {
+
+    private static final int GRAM = 3;
+    private static final int FREE_CHECK_BATCH = 500;
+
+    private final ItemRepository itemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Item> items = itemRepository.findAll();
+
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            items.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Поисковый индекс построен, вещей в индексе: {}", documents.size());
+    }
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        List<Long> ranked = findIds(text);
+        if (from >= ranked.size()) {
+            return Collections.emptyList();
+        }
+
+        return load(ranked.subList(from, Math.min(ranked.size(), from + size)));
+    }
+
+    /**
+     * Кандидаты проверяются на занятость в порядке ранжирования пачками по FREE_CHECK_BATCH,
+     * пока не наберётся страница: каждая пачка — один запрос с антиджойном по бронированиям.
+     */
+    @Override
+    public List<Item> searchFreeBetween(String text, LocalDateTime start, LocalDateTime end, int from, int size) {
+        List<Long> ranked = findIds(text);
+        List<Long> page = new ArrayList<>(size);
+        int skipped = 0;
+
+        for (int offset = 0; offset < ranked.size() && page.size() < size; offset += FREE_CHECK_BATCH) {
+            List<Long> batch = ranked.subList(offset, Math.min(ranked.size(), offset + FREE_CHECK_BATCH));
+            Set<Long> free = new HashSet<>(itemRepository.findIdsFreeBetween(batch, start, end));
+            for (Long id : batch) {
+                if (!free.contains(id)) {
+                    continue;
+                }
+                if (skipped < from) {
+                    skipped++;
+                } else if (page.size() < size) {
+                    page.add(id);
+                }
+            }
+        }
+        return load(page);
+    }
+
+    // Совпадения ранжируются один раз, затем загружаются пачками
+    @Override
+    public void export(String text, int batchSize, Consumer<List<Item>> consumer) {
+        List<Long> ranked = findIds(text);
+        for (int offset = 0; offset < ranked.size(); offset += batchSize) {
+            consumer.accept(load(ranked.subList(offset, Math.min(ranked.size(), offset + batchSize))));
+        }
+    }
+
+    private List<Item> load(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            positions.put(ids.get(i), i);
+        }
+
+        List<Item> items = new ArrayList<>(itemRepository.findAllById(ids));
+        items.sort(Comparator.comparing(item -> positions.get(item.getId())));
+        return items;
+    }
+
+    @Override
+    public void index(Item item) {
+        Document document = new Document(item.getId(), normalize(item.getName()),
+                normalize(item.getDescription()), Boolean.TRUE.equals(item.getAvailable()));
+
+        // Индекс меняется только после фиксации транзакции, чтобы откат не оставил в нём лишнего
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(document);
+                }
+            });
+        } else {
+            apply(document);
+        }
+    }
+
+    private List<Long> findIds(String text) {
+        String query = normalize(text);
+        if (query.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Iterable<Long> candidates = query.length() < GRAM ? documents.keySet() : candidates(query);
+            List<Document> matched = new ArrayList<>();
+            for (Long id : candidates) {
+                Document document = documents.get(id);
+                if (document.matches(query)) {
+                    matched.add(document);
+                }
+            }
+
+            // Совпадение в названии выше совпадения только в описании, внутри группы — по id
+            matched.sort(Comparator.comparing((Document document) -> !document.name().contains(query))
+                    .thenComparing(Document::id));
+            return matched.stream()
+                    .map(Document::id)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<Long> candidates(String query) {
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : trigrams(query)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return Collections.emptySet();
+            }
+            lists.add(ids);
+        }
+
+        // Пересечение начинается с самого короткого списка
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private void apply(Document document) {
+        lock.writeLock().lock();
+        try {
+            remove(document.id());
+            if (document.available()) {
+                put(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(Item item) {
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            put(new Document(item.getId(), normalize(item.getName()), normalize(item.getDescription()), true));
+        }
+    }
+
+    private void put(Document document) {
+        documents.put(document.id(), document);
+        for (String gram : document.grams()) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(document.id());
+        }
+    }
+
+    private void remove(Long id) {
+        Document previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String gram : previous.grams()) {
+            Set<Long> ids = postings.get(gram);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> trigrams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private record Document(Long id, String name, String description, boolean available) {
+
+        boolean matches(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        Set<String> grams() {
+            Set<String> grams = trigrams(name);
+            grams.addAll(trigrams(description));
+            return grams;
+        }
+    }
+}
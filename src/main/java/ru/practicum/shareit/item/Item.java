@@ -20,7 +20,8 @@ import java.util.List;
 public class Item {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false)
@@ -36,6 +37,10 @@ public class Item {
     @JoinColumn(name = "owner_id", nullable = false)
     private User ownerEntity;
 
+    // Запрос, в ответ на который добавлена вещь
+    @Column(name = "request_id")
+    private Long requestId;
+
     @OneToMany(mappedBy = "item")
     private List<Comment> comments = new ArrayList<>();
 
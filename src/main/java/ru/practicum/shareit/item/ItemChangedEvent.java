@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Изменилась общая для всех пользователей часть карточки вещи: поля вещи или её комментарии.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ItemChangedEvent {
+    private final Long itemId;
+}
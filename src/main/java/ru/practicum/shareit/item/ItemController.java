@@ -1,11 +1,18 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.comment.CommentDto;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -14,7 +21,10 @@ import java.util.List;
 public class ItemController {
 
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String DEFAULT_PAGE_SIZE = "10";
+    private static final String NDJSON = "application/x-ndjson";
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -36,14 +46,44 @@ public class ItemController {
         return itemService.getItemById(itemId, userId);
     }
 
+    // Свободные часы вещи для календаря; from и to в формате ISO, например 2030-01-01T10:00
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(@PathVariable Long itemId,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime from,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime to) {
+        return itemService.getAvailability(itemId, from, to);
+    }
+
     @GetMapping
     public List<ItemDto> getItemsByOwner(@RequestHeader(USER_ID_HEADER) Long userId) {
         return itemService.getItemsByOwner(userId);
     }
 
+    // start и end необязательны: если заданы, вещи с подтверждёнными бронированиями на эти даты не выдаются
     @GetMapping("/search")
-    public List<ItemDto> searchItems(@RequestParam String text) {
-        return itemService.searchItems(text);
+    public List<ItemDto> searchItems(@RequestParam String text,
+                                     @RequestParam(required = false)
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                     @RequestParam(required = false)
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                     @RequestParam(defaultValue = "0") Integer from,
+                                     @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) Integer size) {
+        return itemService.searchItems(text, start, end, from, size);
+    }
+
+    // Полная выгрузка результатов поиска построчно в формате NDJSON, без буферизации всего списка
+    @GetMapping(value = "/search/export", produces = NDJSON)
+    public StreamingResponseBody exportSearchItems(@RequestParam String text) {
+        return out -> {
+            try {
+                itemService.exportSearchItems(text, itemDto -> writeLine(out, itemDto));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+        };
     }
 
     @PostMapping("/{itemId}/comment")
@@ -52,4 +92,13 @@ public class ItemController {
                                  @Valid @RequestBody CommentDto commentDto) {
         return itemService.addComment(userId, itemId, commentDto);
     }
+
+    private void writeLine(OutputStream out, ItemDto itemDto) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(itemDto));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
\ No newline at end of file
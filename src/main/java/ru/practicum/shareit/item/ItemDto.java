@@ -21,6 +21,8 @@ public class ItemDto {
     @NotNull(message = "Необходимо указать статус доступности")
     private Boolean available;
 
+    private Long requestId;
+
     private BookingShortDto lastBooking;
     private BookingShortDto nextBooking;
     private List<CommentDto> comments;
@@ -8,6 +8,21 @@ public class ItemMapper {
         dto.setName(item.getName());
         dto.setDescription(item.getDescription());
         dto.setAvailable(item.getAvailable());
+        dto.setRequestId(item.getRequestId());
+        return dto;
+    }
+
+    // Копия для ответа, чтобы не изменять закэшированный объект
+    public static ItemDto copyOf(ItemDto source) {
+        ItemDto dto = new ItemDto();
+        dto.setId(source.getId());
+        dto.setName(source.getName());
+        dto.setDescription(source.getDescription());
+        dto.setAvailable(source.getAvailable());
+        dto.setRequestId(source.getRequestId());
+        dto.setLastBooking(source.getLastBooking());
+        dto.setNextBooking(source.getNextBooking());
+        dto.setComments(source.getComments());
         return dto;
     }
 
@@ -17,6 +32,7 @@ public class ItemMapper {
         item.setName(itemDto.getName());
         item.setDescription(itemDto.getDescription());
         item.setAvailable(itemDto.getAvailable());
+        item.setRequestId(itemDto.getRequestId());
         item.setOwner(ownerId);
         return item;
     }
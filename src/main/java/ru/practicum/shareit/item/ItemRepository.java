@@ -3,7 +3,10 @@ package ru.practicum.shareit.item;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.request.ItemAnswerDto;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
@@ -11,9 +14,92 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     @Query("SELECT i FROM Item i WHERE i.ownerEntity.id = :ownerId")
     List<Item> findAllByOwner(@Param("ownerId") Long ownerId);
 
-    @Query("SELECT i FROM Item i " +
+    @Query("SELECT i.ownerEntity.id FROM Item i WHERE i.id = :itemId")
+    Long findOwnerIdById(@Param("itemId") Long itemId);
+
+    @Query("SELECT COUNT(i) FROM Item i WHERE i.ownerEntity.id = :ownerId")
+    long countByOwner(@Param("ownerId") Long ownerId);
+
+    @Query("SELECT MIN(i.id) FROM Item i")
+    Long findMinId();
+
+    @Query("SELECT MAX(i.id) FROM Item i")
+    Long findMaxId();
+
+    // Вещи-ответы для набора запросов одним запросом по индексу items(request_id)
+    @Query("SELECT new ru.practicum.shareit.request.ItemAnswerDto(i.id, i.name, i.ownerEntity.id, i.requestId) " +
+            "FROM Item i " +
+            "WHERE i.requestId IN :requestIds " +
+            "ORDER BY i.id")
+    List<ItemAnswerDto> findAnswersByRequestIds(@Param("requestIds") Collection<Long> requestIds);
+
+    // ILIKE по подстроке, совпадения в названии выше совпадений в описании;
+    // на Postgres обслуживается триграммными GIN-индексами из schema-postgresql.sql
+    @Query(value = "SELECT * FROM items i " +
+            "WHERE i.available = true " +
+            "AND (i.name ILIKE CONCAT('%', :text, '%') " +
+            "OR i.description ILIKE CONCAT('%', :text, '%')) " +
+            "ORDER BY CASE WHEN i.name ILIKE CONCAT('%', :text, '%') THEN 0 ELSE 1 END, i.id " +
+            "LIMIT :limit OFFSET :offset",
+            nativeQuery = true)
+    List<Item> searchByText(@Param("text") String text,
+                            @Param("offset") int offset,
+                            @Param("limit") int limit);
+
+    // Выгрузка поиска по ключу без OFFSET: сначала совпадения в названии по id,
+    // затем совпадения только в описании по id
+    @Query(value = "SELECT * FROM items i " +
+            "WHERE i.available = true " +
+            "AND i.name ILIKE CONCAT('%', :text, '%') " +
+            "AND i.id > :afterId " +
+            "ORDER BY i.id " +
+            "LIMIT :limit",
+            nativeQuery = true)
+    List<Item> searchByNameAfter(@Param("text") String text,
+                                 @Param("afterId") long afterId,
+                                 @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM items i " +
             "WHERE i.available = true " +
-            "AND (UPPER(i.name) LIKE UPPER(CONCAT('%', :text, '%')) " +
-            "OR UPPER(i.description) LIKE UPPER(CONCAT('%', :text, '%')))")
-    List<Item> searchByText(@Param("text") String text);
-}
\ No newline at end of file
+            "AND i.name NOT ILIKE CONCAT('%', :text, '%') " +
+            "AND i.description ILIKE CONCAT('%', :text, '%') " +
+            "AND i.id > :afterId " +
+            "ORDER BY i.id " +
+            "LIMIT :limit",
+            nativeQuery = true)
+    List<Item> searchByDescriptionOnlyAfter(@Param("text") String text,
+                                            @Param("afterId") long afterId,
+                                            @Param("limit") int limit);
+
+    // То же, без вещей с подтверждёнными бронированиями, пересекающими [start, end); антиджойн
+    // обслуживается индексом bookings(item_id, status, start_date, end_date)
+    @Query(value = "SELECT * FROM items i " +
+            "WHERE i.available = true " +
+            "AND (i.name ILIKE CONCAT('%', :text, '%') " +
+            "OR i.description ILIKE CONCAT('%', :text, '%')) " +
+            "AND NOT EXISTS (SELECT 1 FROM bookings b " +
+            "WHERE b.item_id = i.id " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.start_date < :end " +
+            "AND b.end_date > :start) " +
+            "ORDER BY CASE WHEN i.name ILIKE CONCAT('%', :text, '%') THEN 0 ELSE 1 END, i.id " +
+            "LIMIT :limit OFFSET :offset",
+            nativeQuery = true)
+    List<Item> searchByTextFreeBetween(@Param("text") String text,
+                                       @Param("start") LocalDateTime start,
+                                       @Param("end") LocalDateTime end,
+                                       @Param("offset") int offset,
+                                       @Param("limit") int limit);
+
+    // Вещи из набора без подтверждённых бронирований, пересекающих [start, end)
+    @Query("SELECT i.id FROM Item i " +
+            "WHERE i.id IN :ids " +
+            "AND NOT EXISTS (SELECT b.id FROM Booking b " +
+            "WHERE b.item.id = i.id " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.start < :end " +
+            "AND b.end > :start)")
+    List<Long> findIdsFreeBetween(@Param("ids") Collection<Long> ids,
+                                  @Param("start") LocalDateTime start,
+                                  @Param("end") LocalDateTime end);
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+@Slf4j
+@Configuration
+public class ItemSearchConfig {
+
+    private static final String POSTGRES = "PostgreSQL";
+
+    @Bean
+    public ItemSearchIndex itemSearchIndex(DataSource dataSource, ItemRepository itemRepository) {
+        String database;
+        try {
+            database = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        } catch (MetaDataAccessException e) {
+            log.warn("Не удалось определить тип базы данных, используется поиск в памяти: {}", e.getMessage());
+            return new InMemoryItemSearchIndex(itemRepository);
+        }
+
+        if (POSTGRES.equals(database)) {
+            log.info("Поиск вещей через индексы pg_trgm");
+            return new PostgresItemSearchIndex(itemRepository);
+        }
+        log.info("Поиск вещей через индекс в памяти ({})", database);
+        return new InMemoryItemSearchIndex(itemRepository);
+    }
+}
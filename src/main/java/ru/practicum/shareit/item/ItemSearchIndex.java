@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Поиск доступных вещей по подстроке в названии или описании.
+ * Результаты упорядочены по релевантности: совпадение в названии выше совпадения в описании, затем по id;
+ * from — точное смещение в этом порядке, а не номер страницы.
+ */
+public interface ItemSearchIndex {
+
+    List<Item> search(String text, int from, int size);
+
+    // То же без вещей, у которых подтверждённые бронирования пересекают [start, end)
+    List<Item> searchFreeBetween(String text, LocalDateTime start, LocalDateTime end, int from, int size);
+
+    // Все результаты search в том же порядке пачками по batchSize за один проход
+    void export(String text, int batchSize, Consumer<List<Item>> consumer);
+
+    // Вызывается после сохранения вещи, чтобы индекс не отставал от таблицы
+    void index(Item item);
+}
@@ -2,7 +2,9 @@ package ru.practicum.shareit.item;
 
 import ru.practicum.shareit.comment.CommentDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
     ItemDto addItem(Long userId, ItemDto itemDto);
@@ -13,7 +15,13 @@ public interface ItemService {
 
     List<ItemDto> getItemsByOwner(Long userId);
 
-    List<ItemDto> searchItems(String text);
+    ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
+    List<ItemDto> searchItems(String text, int from, int size);
+
+    List<ItemDto> searchItems(String text, LocalDateTime start, LocalDateTime end, int from, int size);
+
+    void exportSearchItems(String text, Consumer<ItemDto> consumer);
 
     CommentDto addComment(Long userId, Long itemId, CommentDto commentDto);
 }
\ No newline at end of file
@@ -1,40 +1,63 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.AvailabilitySlot;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.ItemBookingView;
 import ru.practicum.shareit.comment.Comment;
 import ru.practicum.shareit.comment.CommentDto;
 import ru.practicum.shareit.comment.CommentMapper;
 import ru.practicum.shareit.comment.CommentRepository;
+import ru.practicum.shareit.comment.CommentView;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ForbiddenException;
+import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.UserService;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@Timed(value = "shareit.service", histogram = true, percentiles = {0.5, 0.95, 0.99})
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
 
+    private static final int MAX_SEARCH_RESULTS = 1000;
+    private static final int EXPORT_BATCH_SIZE = 500;
+    private static final Duration MAX_AVAILABILITY_WINDOW = Duration.ofDays(366);
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
     private final CommentRepository commentRepository;
+    private final ItemRequestRepository itemRequestRepository;
     private final UserService userService;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemViewCache itemViewCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
     @Override
     @Transactional
@@ -45,8 +68,13 @@ public class ItemServiceImpl implements ItemService {
             throw new NotFoundException("Пользователь с id=" + userId + " не найден");
         }
 
+        if (itemDto.getRequestId() != null && !itemRequestRepository.existsById(itemDto.getRequestId())) {
+            throw new NotFoundException("Запрос с id=" + itemDto.getRequestId() + " не найден");
+        }
+
         Item item = ItemMapper.toItem(itemDto, userId);
         Item savedItem = itemRepository.save(item);
+        itemSearchIndex.index(savedItem);
 
         log.info("Вещь добавлена с id={}", savedItem.getId());
         return ItemMapper.toItemDto(savedItem);
@@ -77,6 +105,8 @@ public class ItemServiceImpl implements ItemService {
         }
 
         Item updatedItem = itemRepository.save(item);
+        itemSearchIndex.index(updatedItem);
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId));
         log.info("Вещь с id={} обновлена", itemId);
 
         return ItemMapper.toItemDto(updatedItem);
@@ -86,19 +116,16 @@ public class ItemServiceImpl implements ItemService {
     public ItemDto getItemById(Long itemId, Long userId) {
         log.info("Получение вещи с id={}", itemId);
 
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new NotFoundException("Вещь с id=" + itemId + " не найдена"));
-
-        ItemDto itemDto = ItemMapper.toItemDto(item);
+        // Общая часть карточки с комментариями берётся из кэша
+        ItemView view = itemViewCache.get(itemId);
+        ItemDto itemDto = ItemMapper.copyOf(view.getItem());
+        itemDto.setComments(withAuthorNames(view.getComments()));
 
-        // Добавляем бронирования только для владельца
-        if (item.getOwner().equals(userId)) {
-            addBookingsToItem(itemDto);
+        // Добавляем бронирования только для владельца, они зависят от текущего времени и не кэшируются
+        if (view.getOwnerId().equals(userId)) {
+            addBookingsToItems(List.of(itemDto));
         }
 
-        // Добавляем комментарии
-        addCommentsToItem(itemDto);
-
         return itemDto;
     }
 
@@ -112,7 +139,7 @@ public class ItemServiceImpl implements ItemService {
                 .collect(Collectors.toList());
 
         // Добавляем бронирования ко всем вещам
-        itemDtos.forEach(this::addBookingsToItem);
+        addBookingsToItems(itemDtos);
 
         // Добавляем комментарии
         addCommentsToItems(itemDtos);
@@ -121,18 +148,81 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
-    public List<ItemDto> searchItems(String text) {
-        log.info("Поиск вещей по тексту: '{}'", text);
+    public ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        log.info("Получение календаря вещи с id={} с {} по {}", itemId, from, to);
 
-        if (text == null || text.isBlank()) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("Начало периода должно быть раньше конца");
+        }
+        if (Duration.between(from, to).compareTo(MAX_AVAILABILITY_WINDOW) > 0) {
+            throw new BadRequestException("Период календаря не может быть длиннее " +
+                    MAX_AVAILABILITY_WINDOW.toDays() + " дней");
+        }
+
+        // Недоступную вещь забронировать нельзя ни на какие даты
+        ItemView view = itemViewCache.get(itemId);
+        List<AvailabilitySlot> free = Boolean.TRUE.equals(view.getItem().getAvailable())
+                ? bookingIntervalIndex.freeSlots(itemId, from, to)
+                : List.of();
+        return new ItemAvailabilityDto(itemId, from, to, free);
+    }
+
+    @Override
+    public List<ItemDto> searchItems(String text, int from, int size) {
+        return searchItems(text, null, null, from, size);
+    }
+
+    @Override
+    public List<ItemDto> searchItems(String text, LocalDateTime start, LocalDateTime end, int from, int size) {
+        log.info("Поиск вещей по тексту: '{}', период: {} - {}, from={}, size={}", text, start, end, from, size);
+
+        if (from < 0 || size <= 0) {
+            throw new BadRequestException("Некорректные параметры пагинации: from=" + from + ", size=" + size);
+        }
+
+        if ((start == null) != (end == null)) {
+            throw new BadRequestException("Для поиска по датам нужно указать и начало, и конец периода");
+        }
+
+        if (start != null && !start.isBefore(end)) {
+            throw new BadRequestException("Начало периода должно быть раньше конца");
+        }
+
+        if (text == null || text.isBlank() || from >= MAX_SEARCH_RESULTS) {
             return Collections.emptyList();
         }
 
-        return itemRepository.searchByText(text).stream()
+        // Глубже MAX_SEARCH_RESULTS поиск не отдаёт, для полной выгрузки есть exportSearchItems
+        List<Item> found = start == null
+                ? itemSearchIndex.search(text, from, size)
+                : itemSearchIndex.searchFreeBetween(text, start, end, from, size);
+        return found.stream()
+                .limit(MAX_SEARCH_RESULTS - from)
                 .map(ItemMapper::toItemDto)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void exportSearchItems(String text, Consumer<ItemDto> consumer) {
+        log.info("Выгрузка результатов поиска по тексту: '{}'", text);
+
+        if (text == null || text.isBlank()) {
+            return;
+        }
+
+        // Результаты читаются пачками за один проход, чтобы в памяти не держать весь список. Транзакция
+        // не держится на время записи в ответ: каждая пачка читается своей короткой транзакцией репозитория,
+        // а перед записью пачка переводится в DTO и контекст сохраняемости запроса очищается
+        itemSearchIndex.export(text, EXPORT_BATCH_SIZE, batch -> {
+            List<ItemDto> itemDtos = batch.stream()
+                    .map(ItemMapper::toItemDto)
+                    .toList();
+            entityManager.clear();
+            itemDtos.forEach(consumer);
+        });
+    }
+
     @Override
     @Transactional
     public CommentDto addComment(Long userId, Long itemId, CommentDto commentDto) {
@@ -144,8 +234,7 @@ public class ItemServiceImpl implements ItemService {
         }
 
         // Проверяем существование пользователя
-        User author = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь с id=" + userId + " не найден"));
+        UserDto author = userService.getUserById(userId);
 
         // Проверяем, что пользователь брал вещь в аренду - 400 Bad Request (бизнес-логика)
         boolean hasBooking = bookingRepository.existsCompletedBookingByBookerAndItem(
@@ -158,37 +247,54 @@ public class ItemServiceImpl implements ItemService {
 
         Comment comment = CommentMapper.toComment(commentDto, itemId, userId);
         Comment savedComment = commentRepository.save(comment);
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId));
 
         log.info("Комментарий добавлен с id={}", savedComment.getId());
         return CommentMapper.toCommentDto(savedComment, author.getName());
     }
 
-    private void addBookingsToItem(ItemDto itemDto) {
-        LocalDateTime now = LocalDateTime.now();
+    private void addBookingsToItems(List<ItemDto> itemDtos) {
+        if (itemDtos.isEmpty()) {
+            return;
+        }
 
-        Booking lastBooking = bookingRepository.findLastBookingForItem(itemDto.getId(), now);
-        Booking nextBooking = bookingRepository.findNextBookingForItem(itemDto.getId(), now);
+        List<Long> itemIds = itemDtos.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
 
-        itemDto.setLastBooking(BookingMapper.toBookingShortDto(lastBooking));
-        itemDto.setNextBooking(BookingMapper.toBookingShortDto(nextBooking));
+        List<ItemBookingView> bookings = bookingRepository.findLastAndNextBookingsForItems(
+                itemIds, LocalDateTime.now());
+
+        Map<Long, ItemBookingView> lastByItem = new HashMap<>();
+        Map<Long, ItemBookingView> nextByItem = new HashMap<>();
+        bookings.forEach(booking -> {
+            if (ItemBookingView.LAST.equals(booking.getKind())) {
+                lastByItem.put(booking.getItemId(), booking);
+            } else {
+                nextByItem.put(booking.getItemId(), booking);
+            }
+        });
+
+        itemDtos.forEach(itemDto -> {
+            itemDto.setLastBooking(BookingMapper.toBookingShortDto(lastByItem.get(itemDto.getId())));
+            itemDto.setNextBooking(BookingMapper.toBookingShortDto(nextByItem.get(itemDto.getId())));
+        });
     }
 
-    private void addCommentsToItem(ItemDto itemDto) {
-        List<Comment> comments = commentRepository.findAllByItemId(itemDto.getId());
-
-        List<Long> authorIds = comments.stream()
-                .map(Comment::getAuthorId)
+    // Имена авторов берутся из кэша пользователей при каждом чтении карточки, поэтому переименование сразу
+    // видно в комментариях. Комментарии удалённого автора удалены каскадно и из карточки пропускаются
+    private List<CommentDto> withAuthorNames(List<CommentView> comments) {
+        Map<Long, String> authorNames = new HashMap<>();
+        comments.stream()
+                .map(CommentView::getAuthorId)
                 .distinct()
-                .collect(Collectors.toList());
+                .filter(userService::userExists)
+                .forEach(authorId -> authorNames.put(authorId, userService.getUserById(authorId).getName()));
 
-        Map<Long, String> authorNames = userRepository.findAllById(authorIds).stream()
-                .collect(Collectors.toMap(User::getId, User::getName));
-
-        List<CommentDto> commentDtos = comments.stream()
+        return comments.stream()
+                .filter(comment -> authorNames.containsKey(comment.getAuthorId()))
                 .map(comment -> CommentMapper.toCommentDto(comment, authorNames.get(comment.getAuthorId())))
                 .collect(Collectors.toList());
-
-        itemDto.setComments(commentDtos);
     }
 
     private void addCommentsToItems(List<ItemDto> itemDtos) {
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.comment.CommentView;
+
+import java.util.List;
+
+/**
+ * Кэшируемая карточка вещи без данных, зависящих от запрашивающего пользователя.
+ * Владелец хранится, чтобы решить, нужно ли добавлять бронирования; комментарии — с id автора,
+ * имена авторов подставляются при чтении.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemView {
+    private final Long ownerId;
+    private final ItemDto item;
+    private final List<CommentView> comments;
+}
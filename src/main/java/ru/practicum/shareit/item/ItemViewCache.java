@@ -0,0 +1,53 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.CacheConfig;
+import ru.practicum.shareit.comment.CommentMapper;
+import ru.practicum.shareit.comment.CommentRepository;
+import ru.practicum.shareit.comment.CommentView;
+import ru.practicum.shareit.datasource.ReadYourWrites;
+import ru.practicum.shareit.exception.NotFoundException;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemViewCache {
+
+    private final ItemRepository itemRepository;
+    private final CommentRepository commentRepository;
+    private final ReadYourWrites readYourWrites;
+
+    // Карточка живёт в кэше до 10 минут, поэтому читается с основной базы, а не с реплики
+    @Cacheable(cacheNames = CacheConfig.ITEMS, key = "#itemId")
+    @Transactional(readOnly = true)
+    public ItemView get(Long itemId) {
+        return readYourWrites.readPrimary(() -> load(itemId));
+    }
+
+    private ItemView load(Long itemId) {
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new NotFoundException("Вещь с id=" + itemId + " не найдена"));
+
+        List<CommentView> comments = commentRepository.findAllByItemId(itemId).stream()
+                .map(CommentMapper::toCommentView)
+                .collect(Collectors.toList());
+
+        return new ItemView(item.getOwner(), ItemMapper.toItemDto(item), comments);
+    }
+
+    // Сбрасываем карточку только после фиксации изменений, иначе её может перечитать незавершённая транзакция
+    @TransactionalEventListener(fallbackExecution = true)
+    @CacheEvict(cacheNames = CacheConfig.ITEMS, key = "#event.itemId")
+    public void onItemChanged(ItemChangedEvent event) {
+        log.debug("Карточка вещи с id={} удалена из кэша", event.getItemId());
+    }
+}
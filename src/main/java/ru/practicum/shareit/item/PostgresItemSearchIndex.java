@@ -0,0 +1,57 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Поиск средствами Postgres: ILIKE по name и description обслуживается GIN-индексами pg_trgm,
+ * фильтр по датам — антиджойном с bookings в том же запросе. Страница берётся по LIMIT/OFFSET с точным from.
+ */
+@RequiredArgsConstructor
+public class PostgresItemSearchIndex implements ItemSearchIndex {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        return itemRepository.searchByText(text, from, size);
+    }
+
+    @Override
+    public List<Item> searchFreeBetween(String text, LocalDateTime start, LocalDateTime end, int from, int size) {
+        return itemRepository.searchByTextFreeBetween(text, start, end, from, size);
+    }
+
+    /**
+     * Две выборки по ключу id вместо растущего OFFSET: совпадения в названии, затем только в описании.
+     */
+    @Override
+    public void export(String text, int batchSize, Consumer<List<Item>> consumer) {
+        long afterId = 0;
+        List<Item> batch;
+        do {
+            batch = itemRepository.searchByNameAfter(text, afterId, batchSize);
+            if (!batch.isEmpty()) {
+                consumer.accept(batch);
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == batchSize);
+
+        afterId = 0;
+        do {
+            batch = itemRepository.searchByDescriptionOnlyAfter(text, afterId, batchSize);
+            if (!batch.isEmpty()) {
+                consumer.accept(batch);
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    @Override
+    public void index(Item item) {
+        // Индексы pg_trgm обновляет сама база
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Доменные метрики: таймеры сервисов включаются через @Timed и management.observations.annotations.enabled,
+ * здесь — подсчёт SQL-запросов по методам репозиториев и на один HTTP-запрос.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter(MeterRegistry meterRegistry) {
+        return new SqlStatementCounter(meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementInspector(SqlStatementCounter sqlStatementCounter) {
+        // Инспектор, заданный явно через свойства (как в QueryPlanTest), не перезаписываем
+        return properties -> properties.putIfAbsent(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementCounter);
+    }
+
+    @Bean
+    public SqlStatementsFilter sqlStatementsFilter(SqlStatementCounter sqlStatementCounter,
+                                                   MeterRegistry meterRegistry) {
+        return new SqlStatementsFilter(sqlStatementCounter, meterRegistry);
+    }
+
+    /**
+     * Оборачивает каждый репозиторий Spring Data, чтобы запросы, выполненные внутри его метода,
+     * помечались именем репозитория и метода.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryMethodTagger(ObjectProvider<SqlStatementCounter> sqlStatementCounter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, information) -> {
+                                String repository = information.getRepositoryInterface().getSimpleName();
+                                proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+                                    SqlStatementCounter counter = sqlStatementCounter.getObject();
+                                    counter.enterRepository(repository, invocation.getMethod().getName());
+                                    try {
+                                        return invocation.proceed();
+                                    } finally {
+                                        counter.exitRepository();
+                                    }
+                                });
+                            }));
+                }
+                return bean;
+            }
+        };
+    }
+}
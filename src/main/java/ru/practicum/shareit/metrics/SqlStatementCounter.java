@@ -0,0 +1,75 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Считает SQL-запросы, которые Hibernate отправляет в базу.
+ * Каждый запрос относится к методу репозитория, внутри которого он выполнен
+ * (или к "none", если вне репозитория), и добавляется к счётчику текущего HTTP-запроса.
+ */
+@RequiredArgsConstructor
+public class SqlStatementCounter implements StatementInspector {
+
+    public static final String STATEMENTS = "shareit.sql.statements";
+    public static final String STATEMENTS_PER_REQUEST = "shareit.sql.statements.per.request";
+
+    private static final String NONE = "none";
+
+    private final ThreadLocal<Deque<String[]>> repositoryCalls = ThreadLocal.withInitial(ArrayDeque::new);
+    private final ThreadLocal<int[]> requestStatements = new ThreadLocal<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public String inspect(String sql) {
+        String[] call = repositoryCalls.get().peek();
+        String repository = call == null ? NONE : call[0];
+        String method = call == null ? NONE : call[1];
+        counters.computeIfAbsent(repository + '.' + method, key -> Counter.builder(STATEMENTS)
+                        .description("SQL-запросы по методам репозиториев")
+                        .tag("repository", repository)
+                        .tag("method", method)
+                        .register(meterRegistry))
+                .increment();
+
+        int[] statements = requestStatements.get();
+        if (statements != null) {
+            statements[0]++;
+        }
+        return sql;
+    }
+
+    public void enterRepository(String repository, String method) {
+        repositoryCalls.get().push(new String[]{repository, method});
+    }
+
+    public void exitRepository() {
+        Deque<String[]> calls = repositoryCalls.get();
+        calls.pop();
+        if (calls.isEmpty()) {
+            repositoryCalls.remove();
+        }
+    }
+
+    public void startRequest() {
+        requestStatements.set(new int[1]);
+    }
+
+    /**
+     * Завершает подсчёт для текущего HTTP-запроса и возвращает число выполненных в нём запросов.
+     */
+    public int finishRequest() {
+        int[] statements = requestStatements.get();
+        requestStatements.remove();
+        return statements == null ? 0 : statements[0];
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Публикует число SQL-запросов на один HTTP-запрос с тегами метода и шаблона URI.
+ * Рост этой метрики на эндпоинте — признак N+1.
+ */
+@RequiredArgsConstructor
+public class SqlStatementsFilter extends OncePerRequestFilter {
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final SqlStatementCounter sqlStatementCounter;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        sqlStatementCounter.startRequest();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int statements = sqlStatementCounter.finishRequest();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder(SqlStatementCounter.STATEMENTS_PER_REQUEST)
+                    .description("SQL-запросы на один HTTP-запрос")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern == null ? UNKNOWN_URI : pattern.toString())
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(1000.0)
+                    .register(meterRegistry)
+                    .record(statements);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись событий в outbox_events внутри транзакции изменения: событие фиксируется или откатывается вместе
+ * с данными. На пути запроса это одна вставка, пакетная при нескольких событиях; доставкой занимается OutboxDispatcher.
+ * Транзакция отмечается в OutboxInFlight до вставки и снимается после завершения.
+ */
+@Component
+@RequiredArgsConstructor
+public class Outbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxDispatcher outboxDispatcher;
+    private final OutboxInFlight outboxInFlight;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(String type, Long itemId, Object payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setItemId(itemId);
+        event.setType(type);
+        event.setPayload(toJson(payload));
+        event.setCreated(LocalDateTime.now());
+        event.setStatus(OutboxStatus.PENDING);
+        event.setNextAttemptAt(event.getCreated());
+        OutboxInFlight.Entry entry = outboxInFlight.begin(itemId);
+        outboxEventRepository.save(event);
+        entry.setEventId(event.getId());
+        // Будит диспетчер и после отката: придержанные за этой транзакцией события других транзакций
+        // становятся готовы. Будит после снятия отметки, иначе проход придержал бы и это событие
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                outboxInFlight.complete(entry);
+                outboxDispatcher.wakeUp();
+            }
+        });
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать событие: " + e.getMessage(), e);
+        }
+    }
+}
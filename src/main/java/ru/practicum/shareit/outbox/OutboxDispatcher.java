@@ -0,0 +1,193 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Доставляет события outbox обработчикам пачками: одна выборка готовых событий, доставка, затем
+ * одно удаление доставленных. Упавшее событие откладывается с экспоненциальной задержкой, а остальные
+ * события его вещи ждут его: выборка не отдаёт их, пока более раннее событие вещи не доставлено
+ * или не переведено в FAILED после max-attempts попыток.
+ * Id выдаются при вставке, а видимыми события становятся при фиксации, поэтому событие вещи с id выше
+ * наименьшего id её ещё не завершённой транзакции придерживается до следующего прохода (см. OutboxInFlight).
+ * Диспетчер опрашивает таблицу раз в poll-interval и дополнительно просыпается после завершения транзакций
+ * с новыми событиями. Рассчитан на один экземпляр приложения: несколько экземпляров доставят события
+ * повторно и без порядка внутри вещи.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final Duration MAX_RETRY_DELAY = Duration.ofHours(1);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxInFlight outboxInFlight;
+    private final TransactionTemplate transaction;
+    private final List<OutboxHandler> handlers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration pollInterval;
+    private final Duration retryDelay;
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "outbox-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            OutboxInFlight outboxInFlight,
+                            PlatformTransactionManager transactionManager,
+                            List<OutboxHandler> handlers,
+                            @Value("${shareit.outbox.batch-size:100}") int batchSize,
+                            @Value("${shareit.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${shareit.outbox.poll-interval:1s}") Duration pollInterval,
+                            @Value("${shareit.outbox.retry-delay:1s}") Duration retryDelay) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxInFlight = outboxInFlight;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.handlers = handlers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.pollInterval = pollInterval;
+        this.retryDelay = retryDelay;
+    }
+
+    // Заодно доставляет события, оставшиеся с прошлого запуска
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.scheduleWithFixedDelay(this::drain, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Доставляет одну пачку готовых событий и возвращает число обработанных, без придержанных;
+     * пока не готов хоть один обработчик, ничего не доставляет.
+     */
+    public int dispatch(LocalDateTime now) {
+        if (!handlers.stream().allMatch(OutboxHandler::isReady)) {
+            log.debug("Обработчики outbox ещё не готовы, доставка отложена до следующего прохода");
+            return 0;
+        }
+        long mark = outboxInFlight.mark();
+        List<OutboxEvent> batch = Objects.requireNonNull(transaction.execute(status ->
+                outboxEventRepository.findDue(now, PageRequest.of(0, batchSize))));
+        Map<Long, Long> holdBack = outboxInFlight.holdBack(mark);
+
+        List<Long> delivered = new ArrayList<>();
+        Map<OutboxEvent, RuntimeException> failed = new LinkedHashMap<>();
+        Set<Long> blockedItems = new HashSet<>();
+        for (OutboxEvent event : batch) {
+            // Следующие события вещи остаются в очереди до повторной попытки упавшего
+            if (blockedItems.contains(event.getItemId())) {
+                continue;
+            }
+            // Более раннее событие вещи ещё не зафиксировано или могло не попасть в выборку
+            Long lowestInFlight = holdBack.get(event.getItemId());
+            if (lowestInFlight != null && event.getId() > lowestInFlight) {
+                blockedItems.add(event.getItemId());
+                continue;
+            }
+            try {
+                deliver(event);
+                delivered.add(event.getId());
+            } catch (RuntimeException e) {
+                failed.put(event, e);
+                blockedItems.add(event.getItemId());
+            }
+        }
+
+        transaction.executeWithoutResult(status -> {
+            if (!delivered.isEmpty()) {
+                outboxEventRepository.deleteByIdIn(delivered);
+            }
+            failed.forEach((event, error) -> markFailed(event, error, now));
+        });
+        return delivered.size() + failed.size();
+    }
+
+    private void deliver(OutboxEvent event) {
+        for (OutboxHandler handler : handlers) {
+            if (handler.supports(event.getType())) {
+                handler.handle(event);
+            }
+        }
+    }
+
+    private void markFailed(OutboxEvent event, RuntimeException error, LocalDateTime now) {
+        int attempts = event.getAttempts() + 1;
+        String message = String.valueOf(error.getMessage());
+        if (message.length() > MAX_ERROR_LENGTH) {
+            message = message.substring(0, MAX_ERROR_LENGTH);
+        }
+
+        if (attempts >= maxAttempts) {
+            log.error("Событие outbox id={} типа {} не доставлено за {} попыток: {}",
+                    event.getId(), event.getType(), attempts, message, error);
+            outboxEventRepository.markFailedAttempt(event.getId(), OutboxStatus.FAILED, now, message);
+            return;
+        }
+
+        Duration delay = retryDelay.multipliedBy(1L << Math.min(attempts - 1, 20));
+        if (delay.compareTo(MAX_RETRY_DELAY) > 0) {
+            delay = MAX_RETRY_DELAY;
+        }
+        log.warn("Событие outbox id={} типа {} не доставлено (попытка {}), повтор через {}: {}",
+                event.getId(), event.getType(), attempts, delay, message);
+        outboxEventRepository.markFailedAttempt(event.getId(), OutboxStatus.PENDING, now.plus(delay), message);
+    }
+
+    private void drain() {
+        try {
+            while (dispatch(LocalDateTime.now()) == batchSize) {
+                log.debug("Пачка outbox заполнена, выбирается следующая");
+            }
+        } catch (RuntimeException e) {
+            log.error("Не удалось доставить события outbox: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Будит диспетчер; несколько пробуждений подряд схлопываются в один проход.
+     */
+    void wakeUp() {
+        if (!wakeUpPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                wakeUpPending.set(false);
+                drain();
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Диспетчер outbox остановлен, событие будет доставлено после перезапуска");
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Готовые к доставке события по порядку id. Событие пропускается, пока более раннее событие
+    // той же вещи ждёт повторной попытки, иначе порядок внутри вещи нарушился бы
+    @Query("SELECT e FROM OutboxEvent e " +
+            "WHERE e.status = 'PENDING' " +
+            "AND e.nextAttemptAt <= :now " +
+            "AND NOT EXISTS (SELECT p.id FROM OutboxEvent p " +
+            "WHERE p.itemId = e.itemId " +
+            "AND p.status = 'PENDING' " +
+            "AND p.id < e.id " +
+            "AND p.nextAttemptAt > :now) " +
+            "ORDER BY e.id")
+    List<OutboxEvent> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e " +
+            "SET e.status = :status, e.attempts = e.attempts + 1, " +
+            "e.nextAttemptAt = :nextAttemptAt, e.lastError = :error " +
+            "WHERE e.id = :id")
+    int markFailedAttempt(@Param("id") Long id,
+                          @Param("status") OutboxStatus status,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("error") String error);
+}
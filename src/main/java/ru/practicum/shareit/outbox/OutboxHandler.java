@@ -0,0 +1,21 @@
+package ru.practicum.shareit.outbox;
+
+/**
+ * Обработчик событий outbox. Доставка «как минимум один раз»: после сбоя или перезапуска событие
+ * может прийти повторно, поэтому обработка должна быть идемпотентной. События одной вещи приходят
+ * в порядке записи; исключение откладывает событие и все следующие события этой вещи до повторной попытки.
+ */
+public interface OutboxHandler {
+
+    boolean supports(String type);
+
+    void handle(OutboxEvent event);
+
+    /**
+     * Пока хоть один обработчик не готов (например, ещё заполняет данные при старте), диспетчер не доставляет
+     * ничего: отказ обработчика расходовал бы попытки событий и повторял их доставку остальным обработчикам.
+     */
+    default boolean isReady() {
+        return true;
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Незавершённые транзакции этого экземпляра, записавшие события outbox. Id событий выдаёт pooled-lo
+ * последовательность при вставке, а не при коммите, поэтому событие вещи с большим id может стать видимым
+ * раньше события с меньшим. Диспетчер придерживает события вещи с id выше наименьшего id её незавершённой
+ * транзакции, а также транзакции, завершившейся во время выборки: её событие могло в выборку не попасть.
+ * Транзакция отмечается до вставки, пока id ещё неизвестен, и на это время придерживаются все события вещи.
+ */
+@Component
+public class OutboxInFlight {
+
+    private static final long IN_FLIGHT = Long.MAX_VALUE;
+
+    private final AtomicLong completions = new AtomicLong();
+    private final Set<Entry> entries = ConcurrentHashMap.newKeySet();
+
+    public Entry begin(Long itemId) {
+        Entry entry = new Entry(itemId);
+        entries.add(entry);
+        return entry;
+    }
+
+    public void complete(Entry entry) {
+        entry.completedAt = completions.incrementAndGet();
+    }
+
+    /**
+     * Отметка перед выборкой: транзакции, завершившиеся до неё, уже видны выборке и больше не учитываются.
+     */
+    public long mark() {
+        long mark = completions.get();
+        entries.removeIf(entry -> entry.completedAt <= mark);
+        return mark;
+    }
+
+    /**
+     * Наименьший id события по вещам, выше которого события нужно придержать после выборки, начатой
+     * с отметкой mark; Long.MIN_VALUE, если id ещё не выдан.
+     */
+    public Map<Long, Long> holdBack(long mark) {
+        Map<Long, Long> lowest = new HashMap<>();
+        for (Entry entry : entries) {
+            if (entry.completedAt > mark) {
+                Long eventId = entry.eventId;
+                lowest.merge(entry.itemId, eventId == null ? Long.MIN_VALUE : eventId, Math::min);
+            }
+        }
+        return lowest;
+    }
+
+    public static final class Entry {
+
+        private final Long itemId;
+        private volatile Long eventId;
+        private volatile long completedAt = IN_FLIGHT;
+
+        private Entry(Long itemId) {
+            this.itemId = itemId;
+        }
+
+        public void setEventId(Long eventId) {
+            this.eventId = eventId;
+        }
+    }
+}
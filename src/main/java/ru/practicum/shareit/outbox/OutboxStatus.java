@@ -0,0 +1,8 @@
+package ru.practicum.shareit.outbox;
+
+public enum OutboxStatus {
+    // Ждёт доставки или повторной попытки
+    PENDING,
+    // Попытки исчерпаны, событие оставлено для разбора
+    FAILED
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.request;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Вещь, добавленная в ответ на запрос.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemAnswerDto {
+    private Long id;
+    private String name;
+    private Long ownerId;
+
+    // Нужен только для группировки ответов по запросам
+    @JsonIgnore
+    private Long requestId;
+}
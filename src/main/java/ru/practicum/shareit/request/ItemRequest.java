@@ -1,13 +1,32 @@
 package ru.practicum.shareit.request;
 
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
+import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
-@Data
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode(of = {"id"})
+@Entity
+@Table(name = "requests")
 public class ItemRequest {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requests_seq")
+    @SequenceGenerator(name = "requests_seq", sequenceName = "requests_seq", allocationSize = 50)
     private Long id;
+
+    @Column(name = "description", nullable = false, length = 1000)
     private String description;
+
+    @Column(name = "requestor_id", nullable = false)
     private Long requestorId;
+
+    @Column(name = "created", nullable = false)
     private LocalDateTime created;
 }
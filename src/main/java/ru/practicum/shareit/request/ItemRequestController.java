@@ -1,12 +1,43 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
 
-/**
- * TODO Sprint add-item-requests.
- */
 @RestController
 @RequestMapping(path = "/requests")
+@RequiredArgsConstructor
 public class ItemRequestController {
+
+    private final ItemRequestService itemRequestService;
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String DEFAULT_PAGE_SIZE = "10";
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public ItemRequestDto addRequest(@RequestHeader(USER_ID_HEADER) Long userId,
+                                     @Valid @RequestBody ItemRequestDto itemRequestDto) {
+        return itemRequestService.addRequest(userId, itemRequestDto);
+    }
+
+    @GetMapping
+    public List<ItemRequestDto> getOwnRequests(@RequestHeader(USER_ID_HEADER) Long userId) {
+        return itemRequestService.getOwnRequests(userId);
+    }
+
+    @GetMapping("/all")
+    public List<ItemRequestDto> getOtherRequests(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                 @RequestParam(defaultValue = "0") Integer from,
+                                                 @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) Integer size) {
+        return itemRequestService.getOtherRequests(userId, from, size);
+    }
+
+    @GetMapping("/{requestId}")
+    public ItemRequestDto getRequestById(@RequestHeader(USER_ID_HEADER) Long userId,
+                                         @PathVariable Long requestId) {
+        return itemRequestService.getRequestById(userId, requestId);
+    }
 }
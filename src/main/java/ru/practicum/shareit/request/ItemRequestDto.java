@@ -1,7 +1,18 @@
 package ru.practicum.shareit.request;
 
-/**
- * TODO Sprint add-item-requests.
- */
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
 public class ItemRequestDto {
+    private Long id;
+
+    @NotBlank(message = "Описание запроса не может быть пустым")
+    private String description;
+
+    private LocalDateTime created;
+    private List<ItemAnswerDto> items;
 }
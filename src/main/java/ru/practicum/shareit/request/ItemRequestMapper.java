@@ -0,0 +1,24 @@
+package ru.practicum.shareit.request;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ItemRequestMapper {
+
+    public static ItemRequestDto toItemRequestDto(ItemRequest request, List<ItemAnswerDto> items) {
+        ItemRequestDto dto = new ItemRequestDto();
+        dto.setId(request.getId());
+        dto.setDescription(request.getDescription());
+        dto.setCreated(request.getCreated());
+        dto.setItems(items);
+        return dto;
+    }
+
+    public static ItemRequest toItemRequest(ItemRequestDto dto, Long requestorId) {
+        ItemRequest request = new ItemRequest();
+        request.setDescription(dto.getDescription());
+        request.setRequestorId(requestorId);
+        request.setCreated(LocalDateTime.now());
+        return request;
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+
+    // Свои запросы по индексу (requestor_id, created DESC)
+    @Query("SELECT r FROM ItemRequest r " +
+            "WHERE r.requestorId = :requestorId " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findAllByRequestorId(@Param("requestorId") Long requestorId);
+
+    // Чужие запросы от новых к старым по индексу (created DESC, id DESC)
+    @Query("SELECT r FROM ItemRequest r " +
+            "WHERE r.requestorId <> :userId " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findAllOtherThan(@Param("userId") Long userId, Pageable pageable);
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.request;
+
+import java.util.List;
+
+public interface ItemRequestService {
+
+    ItemRequestDto addRequest(Long userId, ItemRequestDto itemRequestDto);
+
+    List<ItemRequestDto> getOwnRequests(Long userId);
+
+    List<ItemRequestDto> getOtherRequests(Long userId, int from, int size);
+
+    ItemRequestDto getRequestById(Long userId, Long requestId);
+}
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.request;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.OffsetPageRequest;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.UserService;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@Timed(value = "shareit.service", histogram = true, percentiles = {0.5, 0.95, 0.99})
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ItemRequestServiceImpl implements ItemRequestService {
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final UserService userService;
+
+    @Override
+    @Transactional
+    public ItemRequestDto addRequest(Long userId, ItemRequestDto itemRequestDto) {
+        log.info("Создание запроса вещи пользователем с id={}", userId);
+
+        checkUserExists(userId);
+
+        ItemRequest saved = itemRequestRepository.save(ItemRequestMapper.toItemRequest(itemRequestDto, userId));
+
+        log.info("Запрос создан с id={}", saved.getId());
+        return ItemRequestMapper.toItemRequestDto(saved, Collections.emptyList());
+    }
+
+    @Override
+    public List<ItemRequestDto> getOwnRequests(Long userId) {
+        log.info("Получение запросов пользователя с id={}", userId);
+
+        checkUserExists(userId);
+
+        return withAnswers(itemRequestRepository.findAllByRequestorId(userId));
+    }
+
+    @Override
+    public List<ItemRequestDto> getOtherRequests(Long userId, int from, int size) {
+        log.info("Получение чужих запросов для пользователя с id={}, from={}, size={}", userId, from, size);
+
+        if (from < 0 || size <= 0) {
+            throw new BadRequestException("Некорректные параметры пагинации: from=" + from + ", size=" + size);
+        }
+        checkUserExists(userId);
+
+        return withAnswers(itemRequestRepository.findAllOtherThan(userId, new OffsetPageRequest(from, size)));
+    }
+
+    @Override
+    public ItemRequestDto getRequestById(Long userId, Long requestId) {
+        log.info("Получение запроса с id={} пользователем с id={}", requestId, userId);
+
+        checkUserExists(userId);
+
+        ItemRequest request = itemRequestRepository.findById(requestId)
+                .orElseThrow(() -> new NotFoundException("Запрос с id=" + requestId + " не найден"));
+
+        return withAnswers(List.of(request)).get(0);
+    }
+
+    private void checkUserExists(Long userId) {
+        if (!userService.userExists(userId)) {
+            throw new NotFoundException("Пользователь с id=" + userId + " не найден");
+        }
+    }
+
+    // Ответы для всей страницы запросов загружаются одним IN-запросом
+    private List<ItemRequestDto> withAnswers(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> requestIds = requests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, List<ItemAnswerDto>> answers = itemRepository.findAnswersByRequestIds(requestIds).stream()
+                .collect(Collectors.groupingBy(ItemAnswerDto::getRequestId));
+
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toItemRequestDto(request,
+                        answers.getOrDefault(request.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,258 @@
+package ru.practicum.shareit.stats;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingEventType;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingResponseDto;
+import ru.practicum.shareit.booking.BookingStatsView;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxEvent;
+import ru.practicum.shareit.outbox.OutboxHandler;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ведёт дневные сводки бронирований по вещам и владельцам из outbox-событий бронирований. Событие пересчитывает
+ * заново по таблице bookings все дни, которые покрывает бронирование, поэтому повторная доставка ничего не искажает.
+ * Сводка владельца меняется на разницу между старыми и новыми строками вещи: диспетчер outbox доставляет события
+ * одним потоком и по порядку внутри вещи, так что разницы не теряются и не применяются дважды.
+ * При первом старте сводки заполняются из истории: вещи делятся на диапазоны id по chunk-size, которые
+ * обрабатываются параллельно в своих транзакциях, затем сводки владельцев собираются одним INSERT ... SELECT.
+ * Пока заполнение не завершено, обработчик не готов (isReady), и диспетчер придерживает доставку событий,
+ * не расходуя их попытки.
+ */
+@Slf4j
+@Component
+public class BookingRollups implements OutboxHandler {
+
+    static final String BACKFILL = "booking_daily_stats";
+
+    private static final Duration BACKFILL_RETRY = Duration.ofMinutes(1);
+
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final ItemDailyStatsRepository itemDailyStatsRepository;
+    private final OwnerDailyStatsRepository ownerDailyStatsRepository;
+    private final StatsBackfillRepository statsBackfillRepository;
+    private final TransactionTemplate transaction;
+    private final ObjectMapper objectMapper;
+    private final int parallelism;
+    private final int chunkSize;
+    private volatile boolean backfilled;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "booking-rollups-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BookingRollups(BookingRepository bookingRepository,
+                          ItemRepository itemRepository,
+                          ItemDailyStatsRepository itemDailyStatsRepository,
+                          OwnerDailyStatsRepository ownerDailyStatsRepository,
+                          StatsBackfillRepository statsBackfillRepository,
+                          PlatformTransactionManager transactionManager,
+                          ObjectMapper objectMapper,
+                          @Value("${shareit.stats.backfill.parallelism:4}") int parallelism,
+                          @Value("${shareit.stats.backfill.chunk-size:1000}") int chunkSize) {
+        this.bookingRepository = bookingRepository;
+        this.itemRepository = itemRepository;
+        this.itemDailyStatsRepository = itemDailyStatsRepository;
+        this.ownerDailyStatsRepository = ownerDailyStatsRepository;
+        this.statsBackfillRepository = statsBackfillRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.execute(this::backfill);
+    }
+
+    @Override
+    public boolean isReady() {
+        return backfilled;
+    }
+
+    @Override
+    public boolean supports(String type) {
+        return Arrays.stream(BookingEventType.values()).anyMatch(eventType -> eventType.name().equals(type));
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        BookingResponseDto booking = read(event.getPayload());
+        LocalDate lastDay = DailyRollups.lastDay(booking.getStart());
+        LocalDate endDay = booking.getEnd().toLocalDate();
+        refresh(event.getItemId(), booking.getStart().toLocalDate(), endDay.isAfter(lastDay) ? lastDay : endDay);
+    }
+
+    /**
+     * Пересчитывает сводки вещи за дни [fromDay, toDay] по текущим бронированиям и переносит разницу
+     * в сводки её владельца.
+     */
+    public void refresh(Long itemId, LocalDate fromDay, LocalDate toDay) {
+        transaction.executeWithoutResult(status -> {
+            List<BookingStatsView> bookings = bookingRepository.findStatsByItemIdBetween(itemId,
+                    fromDay.atStartOfDay(), toDay.plusDays(1).atStartOfDay());
+            Map<LocalDate, DailyCounts> fresh = DailyRollups.collect(bookings, fromDay, toDay)
+                    .getOrDefault(itemId, Collections.emptyMap());
+
+            NavigableMap<LocalDate, DailyCounts> delta = new TreeMap<>();
+            for (ItemDailyStats row : itemDailyStatsRepository.findByItemIdBetween(itemId, fromDay, toDay)) {
+                delta.computeIfAbsent(row.getStatsDate(), day -> new DailyCounts()).add(row.getCounts(), -1);
+            }
+            fresh.forEach((day, counts) -> delta.computeIfAbsent(day, key -> new DailyCounts()).add(counts, 1));
+            delta.values().removeIf(DailyCounts::isEmpty);
+            // Повторная доставка или событие, не изменившее счётчики
+            if (delta.isEmpty()) {
+                return;
+            }
+
+            itemDailyStatsRepository.deleteByItemIdBetween(itemId, fromDay, toDay);
+            List<ItemDailyStats> itemRows = new ArrayList<>();
+            fresh.forEach((day, counts) -> {
+                if (!counts.isEmpty()) {
+                    itemRows.add(new ItemDailyStats(itemId, day, counts));
+                }
+            });
+            itemDailyStatsRepository.saveAll(itemRows);
+
+            Long ownerId = itemRepository.findOwnerIdById(itemId);
+            if (ownerId != null) {
+                applyToOwner(ownerId, delta);
+            }
+        });
+    }
+
+    private void applyToOwner(Long ownerId, NavigableMap<LocalDate, DailyCounts> delta) {
+        LocalDate fromDay = delta.firstKey();
+        LocalDate toDay = delta.lastKey();
+        Map<LocalDate, DailyCounts> days = new TreeMap<>();
+        for (OwnerDailyStats row : ownerDailyStatsRepository.findByOwnerIdBetween(ownerId, fromDay, toDay)) {
+            days.put(row.getStatsDate(), new DailyCounts(row.getCounts()));
+        }
+        delta.forEach((day, counts) -> days.computeIfAbsent(day, key -> new DailyCounts()).add(counts, 1));
+
+        ownerDailyStatsRepository.deleteByOwnerIdBetween(ownerId, fromDay, toDay);
+        List<OwnerDailyStats> ownerRows = new ArrayList<>();
+        days.forEach((day, counts) -> {
+            if (!counts.isEmpty()) {
+                ownerRows.add(new OwnerDailyStats(ownerId, day, counts));
+            }
+        });
+        ownerDailyStatsRepository.saveAll(ownerRows);
+    }
+
+    private void backfill() {
+        try {
+            if (statsBackfillRepository.existsById(BACKFILL)) {
+                backfilled = true;
+                return;
+            }
+            long started = System.nanoTime();
+            log.info("Заполнение дневных сводок бронирований из истории");
+            // Строки прерванного заполнения
+            transaction.executeWithoutResult(status -> {
+                ownerDailyStatsRepository.deleteAllInBatch();
+                itemDailyStatsRepository.deleteAllInBatch();
+            });
+
+            Long minItemId = itemRepository.findMinId();
+            Long maxItemId = itemRepository.findMaxId();
+            int chunks = minItemId == null ? 0 : backfillItems(minItemId, maxItemId);
+
+            transaction.executeWithoutResult(status -> {
+                ownerDailyStatsRepository.insertFromItemStats();
+                StatsBackfill marker = new StatsBackfill();
+                marker.setName(BACKFILL);
+                marker.setCompleted(LocalDateTime.now());
+                statsBackfillRepository.save(marker);
+            });
+            backfilled = true;
+            log.info("Дневные сводки заполнены из истории: {} диапазонов вещей за {} мс",
+                    chunks, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (RuntimeException e) {
+            log.error("Не удалось заполнить дневные сводки, повтор через {}: {}", BACKFILL_RETRY, e.getMessage(), e);
+            executor.schedule(this::backfill, BACKFILL_RETRY.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private int backfillItems(long minItemId, long maxItemId) {
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "booking-rollups-backfill-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (long fromItemId = minItemId; fromItemId <= maxItemId; fromItemId += chunkSize) {
+                long from = fromItemId;
+                long to = Math.min(maxItemId, fromItemId + chunkSize - 1);
+                chunks.add(workers.submit(() -> backfillChunk(from, to)));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+            return chunks.size();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Диапазон вещей не заполнен: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Заполнение сводок прервано", e);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private void backfillChunk(long fromItemId, long toItemId) {
+        transaction.executeWithoutResult(status -> {
+            List<ItemDailyStats> rows = new ArrayList<>();
+            DailyRollups.collect(bookingRepository.findStatsByItemIdRange(fromItemId, toItemId),
+                            LocalDate.MIN, LocalDate.MAX)
+                    .forEach((itemId, days) -> days.forEach((day, counts) ->
+                            rows.add(new ItemDailyStats(itemId, day, counts))));
+            itemDailyStatsRepository.saveAll(rows);
+        });
+    }
+
+    private BookingResponseDto read(String payload) {
+        try {
+            return objectMapper.readValue(payload, BookingResponseDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось разобрать событие бронирования: " + e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
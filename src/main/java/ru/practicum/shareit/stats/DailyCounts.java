@@ -0,0 +1,46 @@
+package ru.practicum.shareit.stats;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Счётчики одного дня: бронирования, подтверждения и отказы по дню начала бронирования
+ * и минуты подтверждённых бронирований, пришедшиеся на этот день.
+ */
+@Data
+@NoArgsConstructor
+@Embeddable
+public class DailyCounts {
+
+    @Column(name = "bookings", nullable = false)
+    private int bookings;
+
+    @Column(name = "approved", nullable = false)
+    private int approved;
+
+    @Column(name = "rejected", nullable = false)
+    private int rejected;
+
+    @Column(name = "booked_minutes", nullable = false)
+    private long bookedMinutes;
+
+    public DailyCounts(DailyCounts counts) {
+        add(counts, 1);
+    }
+
+    /**
+     * Прибавляет счётчики other, умноженные на sign; sign = -1 вычитает их.
+     */
+    public void add(DailyCounts other, int sign) {
+        bookings += sign * other.bookings;
+        approved += sign * other.approved;
+        rejected += sign * other.rejected;
+        bookedMinutes += sign * other.bookedMinutes;
+    }
+
+    public boolean isEmpty() {
+        return bookings == 0 && approved == 0 && rejected == 0 && bookedMinutes == 0;
+    }
+}
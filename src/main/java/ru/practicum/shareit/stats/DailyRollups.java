@@ -0,0 +1,81 @@
+package ru.practicum.shareit.stats;
+
+import ru.practicum.shareit.booking.BookingStatsView;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Раскладка бронирований по вещам и дням. Бронирование, подтверждение и отказ относятся ко дню начала,
+ * минуты подтверждённого бронирования делятся между днями, которые оно покрывает, но не дальше
+ * MAX_STATS_DAYS от дня начала: это наибольший период статистики, и старые бронирования без ограничения
+ * длительности не разворачиваются в миллионы строк.
+ */
+final class DailyRollups {
+
+    private DailyRollups() {
+    }
+
+    /**
+     * Счётчики вещей по дням; учитываются только дни из [fromDay, toDay].
+     */
+    static Map<Long, Map<LocalDate, DailyCounts>> collect(Collection<BookingStatsView> bookings,
+                                                          LocalDate fromDay, LocalDate toDay) {
+        Map<Long, Map<LocalDate, DailyCounts>> byItem = new HashMap<>();
+        for (BookingStatsView booking : bookings) {
+            Map<LocalDate, DailyCounts> days = byItem.computeIfAbsent(booking.itemId(), itemId -> new TreeMap<>());
+            LocalDate startDay = booking.start().toLocalDate();
+            if (!startDay.isBefore(fromDay) && !startDay.isAfter(toDay)) {
+                DailyCounts counts = days.computeIfAbsent(startDay, day -> new DailyCounts());
+                counts.setBookings(counts.getBookings() + 1);
+                if (booking.status() == BookingStatus.APPROVED) {
+                    counts.setApproved(counts.getApproved() + 1);
+                } else if (booking.status() == BookingStatus.REJECTED) {
+                    counts.setRejected(counts.getRejected() + 1);
+                }
+            }
+            if (booking.status() == BookingStatus.APPROVED) {
+                addMinutes(days, booking.start(), booking.end(), fromDay, toDay);
+            }
+        }
+        return byItem;
+    }
+
+    private static void addMinutes(Map<LocalDate, DailyCounts> days, LocalDateTime start, LocalDateTime end,
+                                   LocalDate fromDay, LocalDate toDay) {
+        LocalDate first = max(start.toLocalDate(), fromDay);
+        LocalDate last = min(min(end.toLocalDate(), toDay), lastDay(start));
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            LocalDateTime dayStart = day.atStartOfDay();
+            LocalDateTime from = start.isAfter(dayStart) ? start : dayStart;
+            LocalDateTime dayEnd = dayStart.plusDays(1);
+            LocalDateTime to = end.isBefore(dayEnd) ? end : dayEnd;
+            long minutes = Duration.between(from, to).toMinutes();
+            if (minutes > 0) {
+                DailyCounts counts = days.computeIfAbsent(day, key -> new DailyCounts());
+                counts.setBookedMinutes(counts.getBookedMinutes() + minutes);
+            }
+        }
+    }
+
+    /**
+     * Последний день, на который бронирование с началом start ещё попадает в сводки.
+     */
+    static LocalDate lastDay(LocalDateTime start) {
+        return start.toLocalDate().plusDays(OwnerStatsServiceImpl.MAX_STATS_DAYS - 1);
+    }
+
+    private static LocalDate max(LocalDate first, LocalDate second) {
+        return first.isAfter(second) ? first : second;
+    }
+
+    private static LocalDate min(LocalDate first, LocalDate second) {
+        return first.isBefore(second) ? first : second;
+    }
+}
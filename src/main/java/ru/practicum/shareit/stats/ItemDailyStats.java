@@ -0,0 +1,74 @@
+package ru.practicum.shareit.stats;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode(of = {"itemId", "statsDate"})
+@Entity
+@Table(name = "item_daily_stats")
+@IdClass(ItemDailyStats.Key.class)
+public class ItemDailyStats implements Persistable<ItemDailyStats.Key> {
+
+    @Id
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Id
+    @Column(name = "stats_date", nullable = false)
+    private LocalDate statsDate;
+
+    @Embedded
+    private DailyCounts counts = new DailyCounts();
+
+    // Строки только вставляются: диапазон дней пересчитывается удалением и вставкой заново,
+// поэтому save() не должен делать SELECT перед INSERT, как для сущности с заданным id
+    @Transient
+    @ToString.Exclude
+    private boolean persisted;
+
+    public ItemDailyStats() {
+    }
+
+    public ItemDailyStats(Long itemId, LocalDate statsDate, DailyCounts counts) {
+        this.itemId = itemId;
+        this.statsDate = statsDate;
+        this.counts = counts;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(itemId, statsDate);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long itemId;
+        private LocalDate statsDate;
+    }
+}
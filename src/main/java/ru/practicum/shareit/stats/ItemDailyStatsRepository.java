@@ -0,0 +1,29 @@
+package ru.practicum.shareit.stats;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ItemDailyStatsRepository extends JpaRepository<ItemDailyStats, ItemDailyStats.Key> {
+
+    // Дни вещи в [from, to] по первичному ключу (item_id, stats_date)
+    @Query("SELECT s FROM ItemDailyStats s " +
+            "WHERE s.itemId = :itemId " +
+            "AND s.statsDate BETWEEN :from AND :to")
+    List<ItemDailyStats> findByItemIdBetween(@Param("itemId") Long itemId,
+                                             @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to);
+
+    // Контекст очищается, чтобы строки тех же дней можно было сразу вставить заново
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ItemDailyStats s " +
+            "WHERE s.itemId = :itemId " +
+            "AND s.statsDate BETWEEN :from AND :to")
+    int deleteByItemIdBetween(@Param("itemId") Long itemId,
+                              @Param("from") LocalDate from,
+                              @Param("to") LocalDate to);
+}
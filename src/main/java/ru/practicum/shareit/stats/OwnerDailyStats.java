@@ -0,0 +1,73 @@
+package ru.practicum.shareit.stats;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode(of = {"ownerId", "statsDate"})
+@Entity
+@Table(name = "owner_daily_stats")
+@IdClass(OwnerDailyStats.Key.class)
+public class OwnerDailyStats implements Persistable<OwnerDailyStats.Key> {
+
+    @Id
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Id
+    @Column(name = "stats_date", nullable = false)
+    private LocalDate statsDate;
+
+    @Embedded
+    private DailyCounts counts = new DailyCounts();
+
+    // Строки только вставляются, как и у ItemDailyStats
+    @Transient
+    @ToString.Exclude
+    private boolean persisted;
+
+    public OwnerDailyStats() {
+    }
+
+    public OwnerDailyStats(Long ownerId, LocalDate statsDate, DailyCounts counts) {
+        this.ownerId = ownerId;
+        this.statsDate = statsDate;
+        this.counts = counts;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(ownerId, statsDate);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long ownerId;
+        private LocalDate statsDate;
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.stats;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface OwnerDailyStatsRepository extends JpaRepository<OwnerDailyStats, OwnerDailyStats.Key> {
+
+    // Дни владельца в [from, to] по первичному ключу (owner_id, stats_date)
+    @Query("SELECT s FROM OwnerDailyStats s " +
+            "WHERE s.ownerId = :ownerId " +
+            "AND s.statsDate BETWEEN :from AND :to " +
+            "ORDER BY s.statsDate")
+    List<OwnerDailyStats> findByOwnerIdBetween(@Param("ownerId") Long ownerId,
+                                               @Param("from") LocalDate from,
+                                               @Param("to") LocalDate to);
+
+    // Контекст очищается, чтобы строки тех же дней можно было сразу вставить заново
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM OwnerDailyStats s " +
+            "WHERE s.ownerId = :ownerId " +
+            "AND s.statsDate BETWEEN :from AND :to")
+    int deleteByOwnerIdBetween(@Param("ownerId") Long ownerId,
+                               @Param("from") LocalDate from,
+                               @Param("to") LocalDate to);
+
+    // Сводки владельцев одним INSERT ... SELECT из уже заполненных сводок вещей, для заполнения из истории
+    @Modifying
+    @Query(value = "INSERT INTO owner_daily_stats (owner_id, stats_date, bookings, approved, rejected, booked_minutes) " +
+            "SELECT i.owner_id, s.stats_date, SUM(s.bookings), SUM(s.approved), SUM(s.rejected), " +
+            "SUM(s.booked_minutes) " +
+            "FROM item_daily_stats s " +
+            "JOIN items i ON i.id = s.item_id " +
+            "GROUP BY i.owner_id, s.stats_date",
+            nativeQuery = true)
+    int insertFromItemStats();
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.stats;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping(path = "/owners")
+@RequiredArgsConstructor
+public class OwnerStatsController {
+
+    private final OwnerStatsService ownerStatsService;
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    @GetMapping("/{ownerId}/stats")
+    public OwnerStatsDto getStats(@RequestHeader(USER_ID_HEADER) Long userId,
+                                  @PathVariable Long ownerId,
+                                  @RequestParam(required = false)
+                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                  @RequestParam(required = false)
+                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ownerStatsService.getStats(userId, ownerId, from, to);
+    }
+}
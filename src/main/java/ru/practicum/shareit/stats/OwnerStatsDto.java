@@ -0,0 +1,17 @@
+package ru.practicum.shareit.stats;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OwnerStatsDto {
+    private Long ownerId;
+    private long items;
+    private PeriodStatsDto total;
+    private List<PeriodStatsDto> months;
+}
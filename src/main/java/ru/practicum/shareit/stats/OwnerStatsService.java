@@ -0,0 +1,7 @@
+package ru.practicum.shareit.stats;
+
+import java.time.LocalDate;
+
+public interface OwnerStatsService {
+    OwnerStatsDto getStats(Long userId, Long ownerId, LocalDate from, LocalDate to);
+}
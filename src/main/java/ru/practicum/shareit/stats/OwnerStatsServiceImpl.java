@@ -0,0 +1,92 @@
+package ru.practicum.shareit.stats;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ForbiddenException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Статистика владельца читается только из owner_daily_stats, без обращения к бронированиям;
+ * число вещей для загрузки берётся текущим по индексу items(owner_id).
+ */
+@Slf4j
+@Service
+@Timed(value = "shareit.service", histogram = true, percentiles = {0.5, 0.95, 0.99})
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class OwnerStatsServiceImpl implements OwnerStatsService {
+
+    // Сводки не заглядывают дальше этого срока от начала бронирования, см. DailyRollups
+    static final long MAX_STATS_DAYS = 3660;
+    private static final int DEFAULT_MONTHS = 12;
+    private static final double MINUTES_PER_DAY = 24 * 60;
+
+    private final OwnerDailyStatsRepository ownerDailyStatsRepository;
+    private final ItemRepository itemRepository;
+    private final UserService userService;
+
+    @Override
+    public OwnerStatsDto getStats(Long userId, Long ownerId, LocalDate from, LocalDate to) {
+        if (!userId.equals(ownerId)) {
+            throw new ForbiddenException("Статистику владельца может просматривать только сам владелец");
+        }
+        if (!userService.userExists(ownerId)) {
+            throw new NotFoundException("Пользователь с id=" + ownerId + " не найден");
+        }
+
+        // По умолчанию последние 12 месяцев, включая текущий
+        LocalDate toDay = to != null ? to : LocalDate.now();
+        LocalDate fromDay = from != null ? from : toDay.withDayOfMonth(1).minusMonths(DEFAULT_MONTHS - 1);
+        if (fromDay.isAfter(toDay)) {
+            throw new BadRequestException("Начало периода не может быть позже конца");
+        }
+        if (ChronoUnit.DAYS.between(fromDay, toDay) >= MAX_STATS_DAYS) {
+            throw new BadRequestException("Период статистики не может быть длиннее " + MAX_STATS_DAYS + " дней");
+        }
+
+        log.info("Получение статистики владельца с id={} за период {} - {}", ownerId, fromDay, toDay);
+        Map<YearMonth, DailyCounts> byMonth = new TreeMap<>();
+        YearMonth lastMonth = YearMonth.from(toDay);
+        for (YearMonth month = YearMonth.from(fromDay); !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            byMonth.put(month, new DailyCounts());
+        }
+        DailyCounts total = new DailyCounts();
+        for (OwnerDailyStats row : ownerDailyStatsRepository.findByOwnerIdBetween(ownerId, fromDay, toDay)) {
+            byMonth.get(YearMonth.from(row.getStatsDate())).add(row.getCounts(), 1);
+            total.add(row.getCounts(), 1);
+        }
+
+        long items = itemRepository.countByOwner(ownerId);
+        List<PeriodStatsDto> months = new ArrayList<>();
+        byMonth.forEach((month, counts) -> {
+            LocalDate monthFrom = month.atDay(1).isBefore(fromDay) ? fromDay : month.atDay(1);
+            LocalDate monthTo = month.atEndOfMonth().isAfter(toDay) ? toDay : month.atEndOfMonth();
+            months.add(toPeriod(monthFrom, monthTo, counts, items));
+        });
+
+        return new OwnerStatsDto(ownerId, items, toPeriod(fromDay, toDay, total, items), months);
+    }
+
+    private static PeriodStatsDto toPeriod(LocalDate from, LocalDate to, DailyCounts counts, long items) {
+        int decided = counts.getApproved() + counts.getRejected();
+        Double approvalRate = decided == 0 ? null : (double) counts.getApproved() / decided;
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        double utilization = items == 0 ? 0 : counts.getBookedMinutes() / (items * days * MINUTES_PER_DAY);
+        return new PeriodStatsDto(from, to, counts.getBookings(), counts.getApproved(), counts.getRejected(),
+                approvalRate, counts.getBookedMinutes() / 60.0, utilization);
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.stats;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PeriodStatsDto {
+    private LocalDate from;
+    private LocalDate to;
+    private int bookings;
+    private int approved;
+    private int rejected;
+    // Доля подтверждённых среди решённых владельцем; null, если решений не было
+    private Double approvalRate;
+    private double bookedHours;
+    // Доля подтверждённого времени от времени всех вещей владельца за период
+    private double utilization;
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.stats;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Отметка о завершённом заполнении сводок из истории: пока её нет, заполнение запускается при старте заново.
+ */
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode(of = {"name"})
+@Entity
+@Table(name = "stats_backfills")
+public class StatsBackfill {
+
+    @Id
+    @Column(name = "name", length = 50)
+    private String name;
+
+    @Column(name = "completed", nullable = false)
+    private LocalDateTime completed;
+}
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.stats;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StatsBackfillRepository extends JpaRepository<StatsBackfill, String> {
+}
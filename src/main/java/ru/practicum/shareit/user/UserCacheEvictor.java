@@ -0,0 +1,24 @@
+package ru.practicum.shareit.user;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.CacheConfig;
+
+@Slf4j
+@Component
+public class UserCacheEvictor {
+
+    // Сбрасываем пользователя только после фиксации: иначе параллельное чтение успеет положить в кэш
+    // незафиксированное или уже откаченное состояние
+    @TransactionalEventListener(fallbackExecution = true)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#event.userId"),
+            @CacheEvict(cacheNames = CacheConfig.USER_EXISTS, key = "#event.userId")
+    })
+    public void onUserChanged(UserChangedEvent event) {
+        log.debug("Пользователь с id={} удалён из кэша", event.getUserId());
+    }
+}
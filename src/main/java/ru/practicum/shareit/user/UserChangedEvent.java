@@ -0,0 +1,15 @@
+package ru.practicum.shareit.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Пользователь изменён или удалён.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class UserChangedEvent {
+    private final Long userId;
+}
@@ -1,22 +1,34 @@
 package ru.practicum.shareit.user;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.CacheConfig;
+import ru.practicum.shareit.datasource.ReadYourWrites;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 
 import java.util.List;
 import java.util.stream.Collectors;
 
+/**
+ * Загрузчики кэшей (getUserById, userExists) читают с основной базы через {@link ReadYourWrites#readPrimary}:
+ * значение живёт в кэше до 10 минут, и снимок отстающей реплики не должен в него попасть. Изменения сбрасывают кэш после коммита через {@link UserChangedEvent}.
+ */
 @Slf4j
 @Service
+@Timed(value = "shareit.service", histogram = true, percentiles = {0.5, 0.95, 0.99})
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final ReadYourWrites readYourWrites;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -54,16 +66,18 @@ public class UserServiceImpl implements UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
         log.info("Пользователь с id={} обновлён", userId);
 
         return UserMapper.toUserDto(updatedUser);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#userId")
     public UserDto getUserById(Long userId) {
         log.info("Получение пользователя с id={}", userId);
 
-        User user = userRepository.findById(userId)
+        User user = readYourWrites.readPrimary(() -> userRepository.findById(userId))
                 .orElseThrow(() -> new NotFoundException("Пользователь с id=" + userId + " не найден"));
 
         return UserMapper.toUserDto(user);
@@ -88,11 +102,13 @@ public class UserServiceImpl implements UserService {
         }
 
         userRepository.deleteById(userId);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
         log.info("Пользователь с id={} удалён", userId);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.USER_EXISTS, key = "#userId", unless = "!#result")
     public boolean userExists(Long userId) {
-        return userRepository.existsById(userId);
+        return readYourWrites.readPrimary(() -> userRepository.existsById(userId));
     }
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+-- Дополнения схемы только для H2, выполняются после schema.sql при spring.sql.init.platform=h2
+
+-- Переход id с IDENTITY на последовательности <таблица>_seq в существующих файловых базах.
+-- На свежей базе команды ничего не меняют; последовательность только сдвигается вперёд за максимальный id
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+ALTER SEQUENCE users_seq RESTART WITH (SELECT GREATEST(COALESCE(MAX(id), 0) + 1, (SELECT BASE_VALUE
+    FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'USERS_SEQ')) FROM users);
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE requests ALTER COLUMN id SET DEFAULT nextval('requests_seq');
+ALTER SEQUENCE requests_seq RESTART WITH (SELECT GREATEST(COALESCE(MAX(id), 0) + 1, (SELECT BASE_VALUE
+    FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'REQUESTS_SEQ')) FROM requests);
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE items ALTER COLUMN id SET DEFAULT nextval('items_seq');
+ALTER SEQUENCE items_seq RESTART WITH (SELECT GREATEST(COALESCE(MAX(id), 0) + 1, (SELECT BASE_VALUE
+    FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'ITEMS_SEQ')) FROM items);
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT nextval('bookings_seq');
+ALTER SEQUENCE bookings_seq RESTART WITH (SELECT GREATEST(COALESCE(MAX(id), 0) + 1, (SELECT BASE_VALUE
+    FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'BOOKINGS_SEQ')) FROM bookings);
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE comments ALTER COLUMN id SET DEFAULT nextval('comments_seq');
+ALTER SEQUENCE comments_seq RESTART WITH (SELECT GREATEST(COALESCE(MAX(id), 0) + 1, (SELECT BASE_VALUE
+    FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'COMMENTS_SEQ')) FROM comments);
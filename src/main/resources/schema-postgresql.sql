@@ -0,0 +1,51 @@
+-- Дополнения схемы только для Postgres, выполняются после schema.sql при spring.sql.init.platform=postgresql
+
+-- Триграммные индексы для поиска вещей по подстроке (ItemRepository.searchByText)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_items_name_trgm ON items USING gin (name gin_trgm_ops) WHERE available;
+CREATE INDEX IF NOT EXISTS idx_items_description_trgm ON items USING gin (description gin_trgm_ops) WHERE available;
+
+-- Запрет пересекающихся активных бронирований одной вещи на уровне базы.
+-- ADD CONSTRAINT не поддерживает IF NOT EXISTS, поэтому ограничение добавляется только при отсутствии:
+-- пересоздание на каждом старте перестраивало бы индекс под блокировкой таблицы.
+-- Тело DO в одинарных кавычках, а не в $$: загрузчик скриптов делит их по ";" и не знает о $$-строках
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''bookings_no_overlap'') THEN
+        ALTER TABLE bookings ADD CONSTRAINT bookings_no_overlap
+            EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+            WHERE (status IN (''WAITING'', ''APPROVED''));
+    END IF;
+END
+';
+
+-- Переход id с IDENTITY на последовательности <таблица>_seq в существующих базах.
+-- Последовательность сдвигается за максимальный id, только если её следующее значение не больше него.
+-- Блок pooled-lo, начатый last_value, занимает id до last_value + шаг - 1: сравнение с самим last_value
+-- сдвигало бы последовательность на каждом старте, и новый блок пересёкся бы с выданными экземплярам
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+SELECT setval('users_seq', (SELECT MAX(id) FROM users) + 1, false)
+WHERE (SELECT MAX(id) FROM users) >= (SELECT CASE WHEN is_called THEN last_value + seqincrement ELSE last_value END
+    FROM users_seq, pg_sequence WHERE seqrelid = 'users_seq'::regclass);
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE requests ALTER COLUMN id SET DEFAULT nextval('requests_seq');
+SELECT setval('requests_seq', (SELECT MAX(id) FROM requests) + 1, false)
+WHERE (SELECT MAX(id) FROM requests) >= (SELECT CASE WHEN is_called THEN last_value + seqincrement ELSE last_value END
+    FROM requests_seq, pg_sequence WHERE seqrelid = 'requests_seq'::regclass);
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE items ALTER COLUMN id SET DEFAULT nextval('items_seq');
+SELECT setval('items_seq', (SELECT MAX(id) FROM items) + 1, false)
+WHERE (SELECT MAX(id) FROM items) >= (SELECT CASE WHEN is_called THEN last_value + seqincrement ELSE last_value END
+    FROM items_seq, pg_sequence WHERE seqrelid = 'items_seq'::regclass);
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT nextval('bookings_seq');
+SELECT setval('bookings_seq', (SELECT MAX(id) FROM bookings) + 1, false)
+WHERE (SELECT MAX(id) FROM bookings) >= (SELECT CASE WHEN is_called THEN last_value + seqincrement ELSE last_value END
+    FROM bookings_seq, pg_sequence WHERE seqrelid = 'bookings_seq'::regclass);
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE comments ALTER COLUMN id SET DEFAULT nextval('comments_seq');
+SELECT setval('comments_seq', (SELECT MAX(id) FROM comments) + 1, false)
+WHERE (SELECT MAX(id) FROM comments) >= (SELECT CASE WHEN is_called THEN last_value + seqincrement ELSE last_value END
+    FROM comments_seq, pg_sequence WHERE seqrelid = 'comments_seq'::regclass);
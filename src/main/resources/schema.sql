@@ -1,42 +1,143 @@
+-- Идентификаторы всех таблиц берутся из последовательностей блоками (pooled-lo в Hibernate),
+-- чтобы вставки шли JDBC-пакетами; IDENTITY отключает пакетную вставку.
+-- Шаг последовательности и есть размер блока: Hibernate читает его при старте
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS outbox_events_seq START WITH 1 INCREMENT BY 50;
+
 -- Таблица пользователей
 CREATE TABLE IF NOT EXISTS users (
-    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    id BIGINT DEFAULT nextval('users_seq') PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
     email VARCHAR(512) NOT NULL UNIQUE
 );
 
+-- Таблица запросов вещей
+CREATE TABLE IF NOT EXISTS requests (
+    id BIGINT DEFAULT nextval('requests_seq') PRIMARY KEY,
+    description VARCHAR(1000) NOT NULL,
+    requestor_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
 -- Таблица вещей
 CREATE TABLE IF NOT EXISTS items (
-    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    id BIGINT DEFAULT nextval('items_seq') PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
     description VARCHAR(1000) NOT NULL,
     available BOOLEAN NOT NULL,
-    owner_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE
+    owner_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    request_id BIGINT REFERENCES requests(id) ON DELETE SET NULL
 );
 
+-- Ссылка на запрос, в ответ на который добавлена вещь, в существующих базах
+ALTER TABLE items ADD COLUMN IF NOT EXISTS request_id BIGINT REFERENCES requests(id) ON DELETE SET NULL;
+
 -- Таблица бронирований
 CREATE TABLE IF NOT EXISTS bookings (
-    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    id BIGINT DEFAULT nextval('bookings_seq') PRIMARY KEY,
     start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     item_id BIGINT NOT NULL REFERENCES items(id) ON DELETE CASCADE,
     booker_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
-    status VARCHAR(20) NOT NULL
+    status VARCHAR(20) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    phase VARCHAR(10) NOT NULL DEFAULT 'FUTURE'
 );
 
+-- Версия для оптимистической блокировки в существующих базах
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Фаза FUTURE/CURRENT/PAST в существующих базах: строки получают FUTURE,
+-- и планировщик фаз при старте переводит их вперёд по датам
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS phase VARCHAR(10) NOT NULL DEFAULT 'FUTURE';
+
 -- Таблица комментариев
 CREATE TABLE IF NOT EXISTS comments (
-    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    id BIGINT DEFAULT nextval('comments_seq') PRIMARY KEY,
     text VARCHAR(1000) NOT NULL,
     item_id BIGINT NOT NULL REFERENCES items(id) ON DELETE CASCADE,
     author_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
     created TIMESTAMP WITHOUT TIME ZONE NOT NULL
 );
 
+-- Исходящие события (transactional outbox): пишутся в транзакции изменения и доставляются
+-- обработчикам диспетчером; доставленные строки удаляются, FAILED остаются для разбора
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT DEFAULT nextval('outbox_events_seq') PRIMARY KEY,
+    item_id BIGINT NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    payload VARCHAR(4000) NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    status VARCHAR(10) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    last_error VARCHAR(1000)
+);
+
+-- Дневные сводки бронирований по вещам и владельцам: бронирования и решения по дню начала,
+-- подтверждённое время в минутах по дням, которые оно покрывает. Ведутся из outbox-событий бронирований
+CREATE TABLE IF NOT EXISTS item_daily_stats (
+    item_id BIGINT NOT NULL REFERENCES items(id) ON DELETE CASCADE,
+    stats_date DATE NOT NULL,
+    bookings INT NOT NULL,
+    approved INT NOT NULL,
+    rejected INT NOT NULL,
+    booked_minutes BIGINT NOT NULL,
+    PRIMARY KEY (item_id, stats_date)
+);
+
+CREATE TABLE IF NOT EXISTS owner_daily_stats (
+    owner_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    stats_date DATE NOT NULL,
+    bookings INT NOT NULL,
+    approved INT NOT NULL,
+    rejected INT NOT NULL,
+    booked_minutes BIGINT NOT NULL,
+    PRIMARY KEY (owner_id, stats_date)
+);
+
+-- Завершённые первичные заполнения сводок из истории
+CREATE TABLE IF NOT EXISTS stats_backfills (
+    name VARCHAR(50) PRIMARY KEY,
+    completed TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
 -- Индексы для улучшения производительности
 CREATE INDEX IF NOT EXISTS idx_items_owner ON items(owner_id);
-CREATE INDEX IF NOT EXISTS idx_bookings_item ON bookings(item_id);
-CREATE INDEX IF NOT EXISTS idx_bookings_booker ON bookings(booker_id);
-CREATE INDEX IF NOT EXISTS idx_bookings_status ON bookings(status);
 CREATE INDEX IF NOT EXISTS idx_comments_item ON comments(item_id);
-CREATE INDEX IF NOT EXISTS idx_comments_author ON comments(author_id);
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS idx_comments_author ON comments(author_id);
+
+-- Свои запросы пользователя от новых к старым, чужие запросы от новых к старым
+-- и вещи-ответы для страницы запросов одним IN
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_created ON requests(requestor_id, created DESC);
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests(created DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_items_request ON items(request_id);
+
+-- Составные индексы под запросы BookingRepository: фильтр по букеру или вещи,
+-- затем статус или временной диапазон, сортировка по (start_date DESC, id DESC)
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings(booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings(booker_id, status, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings(item_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_end ON bookings(item_id, status, end_date);
+-- Покрывает и поиск следующего бронирования по start_date, и антиджойн поиска вещей по окну дат
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start_end ON bookings(item_id, status, start_date, end_date);
+
+-- Листинги CURRENT/PAST/FUTURE по равенству фазы и поиск ближайших переходов планировщиком
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_phase_start ON bookings(booker_id, phase, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_phase_start ON bookings(item_id, phase, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_phase_start ON bookings(phase, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_phase_end ON bookings(phase, end_date);
+
+-- Очередь диспетчера outbox: готовые к доставке по порядку id и предыдущие события той же вещи
+CREATE INDEX IF NOT EXISTS idx_outbox_status_next ON outbox_events(status, next_attempt_at, id);
+CREATE INDEX IF NOT EXISTS idx_outbox_item ON outbox_events(item_id, status, id);
+
+-- Одиночные индексы покрываются префиксами составных
+DROP INDEX IF EXISTS idx_bookings_item;
+DROP INDEX IF EXISTS idx_bookings_booker;
+DROP INDEX IF EXISTS idx_bookings_status;
+DROP INDEX IF EXISTS idx_bookings_item_status_start;
\ No newline at end of file
@@ -0,0 +1,86 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingResponseDto;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingApprovalConcurrencyTest extends SharedContextTest {
+
+    private static final int BOOKINGS = 10;
+    private static final int THREADS = 200;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void shouldApplyExactlyOneDecisionPerBooking() throws InterruptedException {
+        Long ownerId = createUser("Владелец");
+        Long bookerId = createUser("Букер");
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            Long itemId = createItem(ownerId);
+            BookingDto bookingDto = new BookingDto();
+            bookingDto.setItemId(itemId);
+            bookingDto.setStart(LocalDateTime.now().plusDays(1));
+            bookingDto.setEnd(LocalDateTime.now().plusDays(2));
+            bookingIds.add(bookingService.addBooking(bookerId, bookingDto).getId());
+        }
+
+        Map<Long, BookingStatus> winners = new ConcurrentHashMap<>();
+        AtomicInteger rejectedAsProcessed = new AtomicInteger();
+        AtomicInteger unexpected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        for (int t = 0; t < THREADS; t++) {
+            Long bookingId = bookingIds.get(t % BOOKINGS);
+            boolean approved = t % 2 == 0;
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    BookingResponseDto result = bookingService.approveBooking(ownerId, bookingId, approved);
+                    assertNull(winners.putIfAbsent(bookingId, result.getStatus()), "Два победителя");
+                } catch (BadRequestException e) {
+                    rejectedAsProcessed.incrementAndGet();
+                } catch (Throwable e) {
+                    unexpected.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+        assertEquals(0, unexpected.get());
+        assertEquals(BOOKINGS, winners.size());
+        assertEquals(THREADS - BOOKINGS, rejectedAsProcessed.get());
+        for (Long bookingId : bookingIds) {
+            Booking stored = bookingRepository.findById(bookingId).orElseThrow();
+            assertEquals(winners.get(bookingId), stored.getStatus());
+            assertEquals(1L, stored.getVersion());
+        }
+    }
+}
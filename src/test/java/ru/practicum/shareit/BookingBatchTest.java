@@ -0,0 +1,137 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.BookingBatchResultDto;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.metrics.SqlStatementCounter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BookingBatchTest extends SharedContextTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void shouldReportResultOfEachEntry() throws Exception {
+        Long ownerId = createUser("Владелец");
+        Long bookerId = createUser("Букер");
+        Long itemId = createItem(ownerId, true);
+        Long unavailableItemId = createItem(ownerId, false);
+        Long ownItemId = createItem(bookerId, true);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        bookingService.addBooking(bookerId, booking(itemId, start.plusDays(10), start.plusDays(12)));
+
+        List<BookingBatchResultDto> results = postBatch(bookerId, List.of(
+                booking(itemId, start, start.plusDays(1)),
+                booking(itemId, start.plusHours(12), start.plusDays(2)),
+                booking(itemId, start.plusDays(11), start.plusDays(13)),
+                booking(unavailableItemId, start, start.plusDays(1)),
+                booking(ownItemId, start, start.plusDays(1)),
+                booking(-1L, start, start.plusDays(1)),
+                booking(itemId, start.minusDays(2), start.minusDays(1)),
+                booking(itemId, start.plusDays(2), start.plusDays(3))));
+
+        assertEquals(List.of(201, 409, 409, 400, 404, 404, 400, 201),
+                results.stream().map(BookingBatchResultDto::getStatus).toList());
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7),
+                results.stream().map(BookingBatchResultDto::getIndex).toList());
+        assertNotNull(results.get(0).getBooking().getId());
+        assertEquals(bookerId, results.get(7).getBooking().getBooker().getId());
+        assertNull(results.get(1).getBooking());
+        assertNotNull(results.get(1).getError());
+
+        // Созданные позиции заняли даты и для одиночных бронирований
+        assertEquals(409, postBatch(bookerId, List.of(booking(itemId, start, start.plusDays(1))))
+                .get(0).getStatus());
+    }
+
+    @Test
+    void shouldInsertBatchWithFewStatements() throws Exception {
+        Long ownerId = createUser("Владелец");
+        Long bookerId = createUser("Букер");
+        List<Long> itemIds = List.of(createItem(ownerId, true), createItem(ownerId, true), createItem(ownerId, true));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<BookingDto> bookings = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            bookings.add(booking(itemIds.get(i % 3), start.plusDays(i), start.plusDays(i).plusHours(1)));
+        }
+
+        List<BookingBatchResultDto> results = postBatch(bookerId, bookings);
+
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == 201));
+        assertEquals(120, results.stream().map(result -> result.getBooking().getId()).distinct().count());
+        DistributionSummary perRequest = meterRegistry.find(SqlStatementCounter.STATEMENTS_PER_REQUEST)
+                .tag("uri", "/bookings/batch")
+                .summary();
+        assertNotNull(perRequest);
+        // Чтения букера, вещей и их интервалов, по одной пакетной вставке бронирований и событий outbox,
+        // до трёх блоков каждой последовательности на 120 id
+        assertTrue(perRequest.max() <= 11, "Пакет из 120 бронирований: " + perRequest.max() + " SQL-запросов");
+    }
+
+    @Test
+    void shouldReportNullEntryAsBadRequest() throws Exception {
+        Long ownerId = createUser("Владелец");
+        Long bookerId = createUser("Букер");
+        Long itemId = createItem(ownerId, true);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        List<BookingBatchResultDto> results = postBatch(bookerId,
+                Arrays.asList(null, booking(itemId, start, start.plusDays(1))));
+
+        assertEquals(List.of(400, 201), results.stream().map(BookingBatchResultDto::getStatus).toList());
+    }
+
+    @Test
+    void shouldRejectEmptyBatch() throws Exception {
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", createUser("Букер"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<BookingBatchResultDto> postBatch(Long userId, List<BookingDto> bookings) throws Exception {
+        String response = mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookings)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, new TypeReference<>() {
+        });
+    }
+
+    private static BookingDto booking(Long itemId, LocalDateTime start, LocalDateTime end) {
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(itemId);
+        bookingDto.setStart(start);
+        bookingDto.setEnd(end);
+        return bookingDto;
+    }
+}
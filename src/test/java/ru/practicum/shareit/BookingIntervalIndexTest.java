@@ -0,0 +1,225 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.AvailabilitySlot;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
+import ru.practicum.shareit.booking.BookingRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookingIntervalIndex(bookingRepository);
+    }
+
+    @Test
+    void shouldRejectOverlappingAndAllowAdjacentIntervals() {
+        when(bookingRepository.findActiveByItemId(eq(1L), any(), any()))
+                .thenReturn(List.of(booking(10L, BASE.plusDays(1), BASE.plusDays(3))));
+
+        assertThrows(ConflictException.class, () -> index.reserve(1L, 11L, BASE, BASE.plusDays(2)));
+        assertThrows(ConflictException.class, () -> index.reserve(1L, 11L, BASE.plusDays(2), BASE.plusDays(4)));
+        assertThrows(ConflictException.class,
+                () -> index.reserve(1L, 11L, BASE.plusHours(36), BASE.plusHours(40)));
+
+        index.reserve(1L, 12L, BASE, BASE.plusDays(1));
+        index.reserve(1L, 13L, BASE.plusDays(3), BASE.plusDays(4));
+        verify(bookingRepository, times(1)).findActiveByItemId(eq(1L), any(), any());
+    }
+
+    @Test
+    void shouldFindOverlapWithLongIntervalStartingEarlier() {
+        when(bookingRepository.findActiveByItemId(eq(1L), any(), any()))
+                .thenReturn(List.of(booking(10L, BASE, BASE.plusDays(30))));
+
+        index.reserve(1L, 11L, BASE.plusDays(40), BASE.plusDays(41));
+
+        assertThrows(ConflictException.class, () -> index.reserve(1L, 12L, BASE.plusDays(20), BASE.plusDays(21)));
+    }
+
+    @Test
+    void shouldFreeDatesOfReleasedBooking() {
+        when(bookingRepository.findActiveByItemId(eq(1L), any(), any())).thenReturn(List.of());
+
+        index.reserve(1L, 10L, BASE, BASE.plusDays(2));
+        index.releaseAfterCommit(1L, 10L);
+
+        assertDoesNotThrow(() -> index.reserve(1L, 11L, BASE.plusDays(1), BASE.plusDays(3)));
+    }
+
+    @Test
+    void shouldFreeDatesOfRolledBackReservation() {
+        when(bookingRepository.findActiveByItemId(eq(1L), any(), any())).thenReturn(List.of());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.reserve(1L, 10L, BASE, BASE.plusDays(2));
+            index.reserve(1L, 11L, BASE.plusDays(2), BASE.plusDays(4));
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(index.isFree(1L, BASE, BASE.plusDays(2)));
+        assertFalse(index.isFree(1L, BASE.plusDays(3), BASE.plusDays(5)));
+        verify(bookingRepository, times(1)).findActiveByItemId(eq(1L), any(), any());
+    }
+
+    @Test
+    void shouldKeepItemsIndependent() {
+        when(bookingRepository.findActiveByItemId(any(), any(), any())).thenReturn(List.of());
+
+        index.reserve(1L, 10L, BASE, BASE.plusDays(2));
+
+        assertDoesNotThrow(() -> index.reserve(2L, 11L, BASE, BASE.plusDays(2)));
+    }
+
+    @Test
+    void shouldListFreeHoursAroundBookingsAtHourGranularity() {
+        when(bookingRepository.findActiveByItemId(eq(1L), any(), any()))
+                .thenReturn(List.of(booking(10L, BASE.plusHours(2), BASE.plusHours(3).plusMinutes(30)),
+                        booking(11L, BASE.plusDays(5), BASE.plusDays(6))));
+
+        List<AvailabilitySlot> slots = index.freeSlots(1L, BASE.plusMinutes(30), BASE.plusDays(7));
+
+        // Час, занятый наполовину, в календаре считается занятым; края обрезаются по запрошенному периоду
+        assertEquals(List.of(
+                new AvailabilitySlot(BASE.plusMinutes(30), BASE.plusHours(2)),
+                new AvailabilitySlot(BASE.plusHours(4), BASE.plusDays(5)),
+                new AvailabilitySlot(BASE.plusDays(6), BASE.plusDays(7))), slots);
+    }
+
+    @Test
+    void shouldAnswerBeyondOccupancyHorizonFromIntervals() {
+        LocalDateTime near = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusDays(1);
+        LocalDateTime far = LocalDateTime.of(9999, 1, 1, 0, 0);
+        when(bookingRepository.findActiveByItemId(eq(1L), any(), any()))
+                .thenReturn(List.of(booking(10L, near.plusHours(2), near.plusHours(3)),
+                        booking(11L, far, far.plusHours(5))));
+
+        // Ближайшие часы отвечает карта занятости, далёкие - интервалы
+        assertEquals(List.of(new AvailabilitySlot(near, near.plusHours(2)),
+                        new AvailabilitySlot(near.plusHours(3), near.plusHours(6))),
+                index.freeSlots(1L, near, near.plusHours(6)));
+        assertEquals(List.of(new AvailabilitySlot(far.minusHours(2), far),
+                        new AvailabilitySlot(far.plusHours(5), far.plusHours(8))),
+                index.freeSlots(1L, far.minusHours(2), far.plusHours(8)));
+        assertFalse(index.isFree(1L, far.plusHours(4), far.plusHours(6)));
+    }
+
+    @Test
+    void shouldKeepSharedHourBusyWhenNeighbourIsReleased() {
+        when(bookingRepository.findActiveByItemId(eq(1L), any(), any())).thenReturn(List.of());
+
+        index.reserve(1L, 10L, BASE, BASE.plusMinutes(90));
+        index.reserve(1L, 11L, BASE.plusMinutes(90), BASE.plusHours(3));
+        index.releaseAfterCommit(1L, 11L);
+
+        assertEquals(List.of(new AvailabilitySlot(BASE.plusHours(2), BASE.plusHours(4))),
+                index.freeSlots(1L, BASE, BASE.plusHours(4)));
+    }
+
+    @Test
+    void shouldSelectFreeItemsWithOneQueryAndExactBoundaries() {
+        when(bookingRepository.findActiveByItemIdIn(any(), any(), any()))
+                .thenReturn(List.of(itemBooking(1L, 10L, BASE, BASE.plusMinutes(90)),
+                        itemBooking(2L, 11L, BASE.plusHours(3), BASE.plusHours(4)),
+                        itemBooking(3L, 12L, BASE.plusHours(1), BASE.plusHours(5))));
+
+        // Вещь 1 освобождается в середине часа: карта занятости сомневается, точная проверка пропускает
+        Set<Long> free = index.freeItems(List.of(1L, 2L, 3L, 4L), BASE.plusMinutes(90), BASE.plusHours(3));
+
+        assertEquals(Set.of(1L, 2L, 4L), free);
+        verify(bookingRepository, times(1)).findActiveByItemIdIn(any(), any(), any());
+        verify(bookingRepository, never()).findActiveByItemId(any(), any(), any());
+    }
+
+    @Test
+    void shouldNeverAcceptOverlapsUnderConcurrentReservations() throws InterruptedException {
+        when(bookingRepository.findActiveByItemId(eq(1L), any(), any())).thenReturn(List.of());
+
+        int threads = 16;
+        int attemptsPerThread = 500;
+        AtomicLong ids = new AtomicLong();
+        List<LocalDateTime[]> accepted = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    LocalDateTime from = BASE.plusHours(ThreadLocalRandom.current().nextInt(2000));
+                    LocalDateTime to = from.plusHours(1 + ThreadLocalRandom.current().nextInt(48));
+                    try {
+                        index.reserve(1L, ids.incrementAndGet(), from, to);
+                        accepted.add(new LocalDateTime[]{from, to});
+                    } catch (ConflictException ignored) {
+                        // Пересечение ожидаемо
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        List<LocalDateTime[]> sorted = new ArrayList<>(accepted);
+        sorted.sort((a, b) -> a[0].compareTo(b[0]));
+        assertFalse(sorted.isEmpty());
+        for (int i = 1; i < sorted.size(); i++) {
+            assertFalse(sorted.get(i)[0].isBefore(sorted.get(i - 1)[1]), "Пересекающиеся интервалы приняты");
+        }
+    }
+
+    private static Booking booking(Long id, LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setStart(start);
+        booking.setEnd(end);
+        return booking;
+    }
+
+    private static Booking itemBooking(Long itemId, Long id, LocalDateTime start, LocalDateTime end) {
+        Booking booking = booking(id, start, end);
+        booking.setItemId(itemId);
+        return booking;
+    }
+}
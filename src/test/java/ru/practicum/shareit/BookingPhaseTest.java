@@ -0,0 +1,118 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingPhase;
+import ru.practicum.shareit.booking.BookingResponseDto;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.UserService;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * До старта контекста в базе лежат бронирования с устаревшей фазой FUTURE, как после простоя приложения.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + BookingPhaseTest.URL,
+        "shareit.bookings.phase.granularity=100ms"
+})
+class BookingPhaseTest {
+
+    static final String URL = "jdbc:h2:mem:booking-phases;DB_CLOSE_DELAY=-1";
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @BeforeAll
+    static void createStaleBookings() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(URL, "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        JdbcTemplate stale = new JdbcTemplate(dataSource);
+        stale.update("INSERT INTO users (id, name, email) VALUES (1000, 'Владелец', 'stale-owner@example.com')");
+        stale.update("INSERT INTO users (id, name, email) VALUES (1001, 'Букер', 'stale-booker@example.com')");
+        stale.update("INSERT INTO items (id, name, description, available, owner_id) "
+                + "VALUES (1000, 'Дрель', 'Аккумуляторная дрель', TRUE, 1000)");
+        LocalDateTime now = LocalDateTime.now();
+        insertStale(stale, 1000, now.minusDays(3), now.minusDays(2));
+        insertStale(stale, 1001, now.minusDays(1), now.plusDays(1));
+        insertStale(stale, 1002, now.plusDays(2), now.plusDays(3));
+    }
+
+    private static void insertStale(JdbcTemplate jdbc, long id, LocalDateTime start, LocalDateTime end) {
+        jdbc.update("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) "
+                + "VALUES (?, ?, ?, 1000, 1001, 'APPROVED')", id, Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+
+    @Test
+    void shouldCatchUpMissedTransitionsAfterRestart() throws InterruptedException {
+        awaitPhase(1000L, BookingPhase.PAST);
+        awaitPhase(1001L, BookingPhase.CURRENT);
+        assertEquals(BookingPhase.FUTURE, phaseOf(1002L));
+    }
+
+    @Test
+    void shouldMoveBookingThroughPhasesAtBoundaries() throws InterruptedException {
+        Long ownerId = TestData.createUser(userService, "Владелец");
+        Long bookerId = TestData.createUser(userService, "Букер");
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(TestData.createItem(itemService, ownerId));
+        bookingDto.setStart(LocalDateTime.now().plusSeconds(1));
+        bookingDto.setEnd(LocalDateTime.now().plusSeconds(2));
+
+        Long bookingId = bookingService.addBooking(bookerId, bookingDto).getId();
+        assertEquals(BookingPhase.FUTURE, phaseOf(bookingId));
+        assertEquals(bookingId, onlyBooking(bookerId, BookingState.FUTURE));
+
+        awaitPhase(bookingId, BookingPhase.CURRENT);
+        awaitPhase(bookingId, BookingPhase.PAST);
+        assertEquals(bookingId, onlyBooking(bookerId, BookingState.PAST));
+        assertTrue(bookingService.getBookingsByOwner(ownerId, BookingState.FUTURE, null, 0, 10).isEmpty());
+    }
+
+    private Long onlyBooking(Long bookerId, BookingState state) {
+        return bookingService.getBookingsByUser(bookerId, state, null, 0, 10).stream()
+                .map(BookingResponseDto::getId)
+                .reduce((first, second) -> {
+                    throw new AssertionError("Ожидалось одно бронирование в состоянии " + state);
+                })
+                .orElseThrow(() -> new AssertionError("Нет бронирований в состоянии " + state));
+    }
+
+    private void awaitPhase(Long bookingId, BookingPhase expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (phaseOf(bookingId) != expected) {
+            assertTrue(System.nanoTime() < deadline,
+                    "Бронирование " + bookingId + " не перешло в " + expected + " за " + TIMEOUT);
+            Thread.sleep(50);
+        }
+    }
+
+    private BookingPhase phaseOf(Long bookingId) {
+        return BookingPhase.valueOf(jdbcTemplate.queryForObject("SELECT phase FROM bookings WHERE id = ?",
+                String.class, bookingId));
+    }
+}
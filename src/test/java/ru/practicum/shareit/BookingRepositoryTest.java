@@ -0,0 +1,173 @@
+package ru.practicum.shareit;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingCursor;
+import ru.practicum.shareit.booking.BookingListView;
+import ru.practicum.shareit.booking.BookingPhase;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.ItemBookingView;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class BookingRepositoryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = createUser("Владелец", "owner@example.com");
+        booker = createUser("Букер", "booker@example.com");
+        item = createItem(owner);
+
+        // Пары бронирований с одинаковым началом проверяют порядок по id внутри одного start
+        for (int i = 0; i < 5; i++) {
+            createBooking(item, booker, BASE.plusDays(i));
+            createBooking(item, booker, BASE.plusDays(i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void shouldWalkAllPagesWithCursorInStartAndIdOrder() {
+        List<BookingListView> walked = new ArrayList<>();
+        BookingCursor cursor = BookingCursor.first();
+
+        while (true) {
+            List<BookingListView> page = bookingRepository.findAllByItemOwnerId(owner.getId(),
+                    cursor.getStart(), cursor.getId(), PageRequest.of(0, 3));
+            walked.addAll(page);
+            if (page.size() < 3) {
+                break;
+            }
+            BookingListView last = page.get(page.size() - 1);
+            cursor = new BookingCursor(last.start(), last.id());
+        }
+
+        assertEquals(10, walked.size());
+        for (int i = 1; i < walked.size(); i++) {
+            BookingListView prev = walked.get(i - 1);
+            BookingListView next = walked.get(i);
+            assertTrue(prev.start().isAfter(next.start())
+                    || (prev.start().equals(next.start()) && prev.id() > next.id()));
+        }
+    }
+
+    @Test
+    void shouldReturnSamePageForOffsetAndCursor() {
+        BookingCursor first = BookingCursor.first();
+        List<BookingListView> firstPage = bookingRepository.findAllByBookerIdOrderByStartDesc(booker.getId(),
+                first.getStart(), first.getId(), PageRequest.of(0, 4));
+        List<BookingListView> secondByOffset = bookingRepository.findAllByBookerIdOrderByStartDesc(booker.getId(),
+                first.getStart(), first.getId(), PageRequest.of(1, 4));
+
+        BookingListView last = firstPage.get(firstPage.size() - 1);
+        List<BookingListView> secondByCursor = bookingRepository.findAllByBookerIdOrderByStartDesc(booker.getId(),
+                last.start(), last.id(), PageRequest.of(0, 4));
+
+        assertEquals(secondByOffset.stream().map(BookingListView::id).toList(),
+                secondByCursor.stream().map(BookingListView::id).toList());
+    }
+
+    @Test
+    void shouldProjectBookerAndItemColumnsWithoutManagingEntities() {
+        BookingCursor first = BookingCursor.first();
+        List<BookingListView> page = bookingRepository.findAllByItemOwnerId(owner.getId(),
+                first.getStart(), first.getId(), PageRequest.of(0, 10));
+
+        assertEquals(10, page.size());
+        BookingListView view = page.get(0);
+        assertEquals(booker.getId(), view.bookerId());
+        assertEquals("Букер", view.bookerName());
+        assertEquals("booker@example.com", view.bookerEmail());
+        assertEquals(item.getId(), view.itemId());
+        assertEquals("Дрель", view.itemName());
+        assertTrue(view.itemAvailable());
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void shouldFindLastAndNextApprovedBookingsForSeveralItems() {
+        Item other = createItem(owner);
+        Item empty = createItem(owner);
+        Booking past = createBooking(other, booker, BASE.minusDays(10), BookingStatus.APPROVED);
+        createBooking(other, booker, BASE.minusDays(20), BookingStatus.APPROVED);
+        createBooking(other, booker, BASE.minusDays(5), BookingStatus.REJECTED);
+        Booking future = createBooking(other, booker, BASE.plusDays(3), BookingStatus.APPROVED);
+        createBooking(other, booker, BASE.plusDays(6), BookingStatus.APPROVED);
+        entityManager.flush();
+
+        List<ItemBookingView> views = bookingRepository.findLastAndNextBookingsForItems(
+                List.of(item.getId(), other.getId(), empty.getId()), BASE);
+
+        assertEquals(2, views.size());
+        ItemBookingView last = views.stream()
+                .filter(view -> ItemBookingView.LAST.equals(view.getKind()))
+                .findFirst()
+                .orElseThrow();
+        ItemBookingView next = views.stream()
+                .filter(view -> ItemBookingView.NEXT.equals(view.getKind()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(past.getId(), last.getId());
+        assertEquals(other.getId(), last.getItemId());
+        assertEquals(booker.getId(), last.getBookerId());
+        assertEquals(future.getId(), next.getId());
+    }
+
+    private User createUser(String name, String email) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        return entityManager.persist(user);
+    }
+
+    private Item createItem(User itemOwner) {
+        Item item = new Item();
+        item.setName("Дрель");
+        item.setDescription("Мощная дрель");
+        item.setAvailable(true);
+        item.setOwnerEntity(itemOwner);
+        return entityManager.persist(item);
+    }
+
+    private Booking createBooking(Item bookingItem, User bookingUser, LocalDateTime start) {
+        return createBooking(bookingItem, bookingUser, start, BookingStatus.WAITING);
+    }
+
+    private Booking createBooking(Item bookingItem, User bookingUser, LocalDateTime start, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setStart(start);
+        booking.setEnd(start.plusHours(2));
+        booking.setItem(bookingItem);
+        booking.setBooker(bookingUser);
+        booking.setStatus(status);
+        booking.setPhase(BookingPhase.at(booking.getStart(), booking.getEnd(), LocalDateTime.now()));
+        return entityManager.persist(booking);
+    }
+}
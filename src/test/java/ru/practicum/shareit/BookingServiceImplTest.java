@@ -0,0 +1,262 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingBatchResultDto;
+import ru.practicum.shareit.booking.BookingCursor;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingEventBroker;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
+import ru.practicum.shareit.booking.BookingListView;
+import ru.practicum.shareit.booking.BookingPhase;
+import ru.practicum.shareit.booking.BookingPhaseScheduler;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingResponseDto;
+import ru.practicum.shareit.booking.BookingServiceImpl;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.datasource.ReadYourWrites;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.outbox.Outbox;
+import ru.practicum.shareit.user.UserService;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingServiceImplTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Mock
+    private ReadYourWrites readYourWrites;
+
+    @Mock
+    private BookingEventBroker bookingEventBroker;
+
+    @Mock
+    private BookingPhaseScheduler bookingPhaseScheduler;
+
+    @Mock
+    private Outbox outbox;
+
+    @InjectMocks
+    private BookingServiceImpl bookingService;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 500})
+    void shouldBuildListingFromProjectionWithoutLoadingEntities(int pageSize) {
+        Long ownerId = 1L;
+        List<BookingListView> bookings = new ArrayList<>();
+
+        for (long i = 1; i <= pageSize; i++) {
+            bookings.add(new BookingListView(i, LocalDateTime.now().plusDays(i), LocalDateTime.now().plusDays(i + 1),
+                    BookingStatus.WAITING, 100 + i, "Букер " + i, "booker" + i + "@example.com",
+                    1000 + i, "Вещь " + i, "Описание " + i, true));
+        }
+
+        when(userService.userExists(ownerId)).thenReturn(true);
+        when(bookingRepository.findAllByItemOwnerId(eq(ownerId), any(), any(), any())).thenReturn(bookings);
+
+        List<BookingResponseDto> result = bookingService.getBookingsByOwner(ownerId, BookingState.ALL,
+                null, 0, pageSize);
+
+        assertEquals(pageSize, result.size());
+        assertEquals(101L, result.get(0).getBooker().getId());
+        assertEquals("Букер 1", result.get(0).getBooker().getName());
+        assertEquals("Вещь 1", result.get(0).getItem().getName());
+        assertTrue(result.get(0).getItem().getAvailable());
+        verifyNoInteractions(itemRepository);
+        verify(userService, never()).getUserById(anyLong());
+    }
+
+    @Test
+    void shouldReturnEmptyListingWithoutExtraQueries() {
+        Long userId = 1L;
+
+        when(userService.userExists(userId)).thenReturn(true);
+        when(bookingRepository.findAllByBookerIdOrderByStartDesc(eq(userId), any(), any(), any()))
+                .thenReturn(List.of());
+
+        List<BookingResponseDto> result = bookingService.getBookingsByUser(userId, BookingState.ALL,
+                null, 0, 10);
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void shouldSeekFromCursorWithoutOffset() {
+        Long userId = 1L;
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2030, 1, 1, 12, 0), 42L);
+
+        when(userService.userExists(userId)).thenReturn(true);
+        when(bookingRepository.findAllByItemOwnerIdAndPhase(eq(userId), eq(BookingPhase.PAST), eq(cursor.getStart()), eq(42L),
+                eq(PageRequest.of(0, 20)))).thenReturn(List.of());
+
+        bookingService.getBookingsByOwner(userId, BookingState.PAST, cursor, 100, 20);
+
+        verify(bookingRepository, times(1)).findAllByItemOwnerIdAndPhase(eq(userId), eq(BookingPhase.PAST), eq(cursor.getStart()),
+                eq(42L), eq(PageRequest.of(0, 20)));
+    }
+
+    @Test
+    void shouldUseFromAsOffsetWithoutCursor() {
+        Long userId = 1L;
+        BookingCursor first = BookingCursor.first();
+
+        when(userService.userExists(userId)).thenReturn(true);
+        when(bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(eq(userId), eq(BookingStatus.WAITING),
+                eq(first.getStart()), eq(first.getId()), any())).thenReturn(List.of());
+
+        // Смещение не кратно размеру страницы: строки берутся ровно с from, а не с начала страницы
+        bookingService.getBookingsByUser(userId, BookingState.WAITING, null, 15, 10);
+
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(bookingRepository, times(1)).findAllByBookerIdAndStatusOrderByStartDesc(eq(userId),
+                eq(BookingStatus.WAITING), eq(first.getStart()), eq(first.getId()), page.capture());
+        assertEquals(15, page.getValue().getOffset());
+        assertEquals(10, page.getValue().getPageSize());
+    }
+
+    @Test
+    void shouldRejectBookingLongerThanMaxDuration() {
+        Item item = new Item();
+        item.setId(1L);
+        item.setOwner(2L);
+        item.setAvailable(true);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(1L);
+        bookingDto.setStart(LocalDateTime.now().plusDays(1));
+        bookingDto.setEnd(LocalDateTime.of(9999, 1, 1, 0, 0));
+
+        assertThrows(BadRequestException.class, () -> bookingService.addBooking(3L, bookingDto));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void shouldMapOnlyExclusionViolationToConflict() {
+        Item item = new Item();
+        item.setId(1L);
+        item.setOwner(2L);
+        item.setAvailable(true);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(1L);
+        bookingDto.setStart(LocalDateTime.now().plusDays(1));
+        bookingDto.setEnd(LocalDateTime.now().plusDays(2));
+
+        when(bookingRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("overlap",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+        assertThrows(ConflictException.class, () -> bookingService.addBooking(3L, bookingDto));
+
+        // Нарушение внешнего ключа - не пересечение дат
+        DataIntegrityViolationException foreignKey = new DataIntegrityViolationException("fk",
+                new SQLException("violates foreign key constraint", "23503"));
+        doThrow(foreignKey).when(bookingRepository).saveAndFlush(any());
+        assertSame(foreignKey, assertThrows(DataIntegrityViolationException.class,
+                () -> bookingService.addBooking(3L, bookingDto)));
+    }
+
+    @Test
+    void shouldRejectOnlyBatchEntriesThatFailToReserve() {
+        Item item = new Item();
+        item.setId(1L);
+        item.setOwner(2L);
+        item.setAvailable(true);
+        when(itemRepository.findAllById(Set.of(1L))).thenReturn(List.of(item));
+        when(bookingIntervalIndex.isFree(eq(1L), any(), any())).thenReturn(true);
+        AtomicLong ids = new AtomicLong(100);
+        when(bookingRepository.save(any())).thenAnswer(invocation -> {
+            Booking booking = invocation.getArgument(0);
+            booking.setId(ids.incrementAndGet());
+            return booking;
+        });
+        // Вторую позицию после проверки isFree заняло параллельное бронирование
+        doAnswer(invocation -> {
+            if (invocation.getArgument(1).equals(102L)) {
+                throw new ConflictException("Вещь с id=1 уже забронирована на пересекающиеся даты");
+            }
+            return null;
+        }).when(bookingIntervalIndex).reserve(eq(1L), anyLong(), any(), any());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<BookingDto> batch = new ArrayList<>();
+        batch.add(booking(1L, start, start.plusDays(1)));
+        batch.add(booking(1L, start.plusDays(2), start.plusDays(3)));
+        batch.add(null);
+        batch.add(booking(1L, start.plusDays(4), start.plusDays(5)));
+
+        List<BookingBatchResultDto> results = bookingService.addBookings(3L, batch);
+
+        assertEquals(List.of(201, 409, 400, 201), results.stream().map(BookingBatchResultDto::getStatus).toList());
+        ArgumentCaptor<Booking> rejected = ArgumentCaptor.forClass(Booking.class);
+        verify(bookingRepository).delete(rejected.capture());
+        assertEquals(102L, rejected.getValue().getId());
+        verify(bookingRepository, times(1)).flush();
+        verify(outbox, times(2)).add(any(), eq(1L), any());
+    }
+
+    @Test
+    void shouldRejectInvalidPageParameters() {
+        Long userId = 1L;
+
+        when(userService.userExists(userId)).thenReturn(true);
+
+        assertThrows(BadRequestException.class,
+                () -> bookingService.getBookingsByUser(userId, BookingState.ALL, null, -1, 10));
+        assertThrows(BadRequestException.class,
+                () -> bookingService.getBookingsByUser(userId, BookingState.ALL, null, 0, 0));
+    }
+
+    private static BookingDto booking(Long itemId, LocalDateTime start, LocalDateTime end) {
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(itemId);
+        bookingDto.setStart(start);
+        bookingDto.setEnd(end);
+        return bookingDto;
+    }
+
+    @Test
+    void shouldEncodeAndDecodeCursor() {
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2030, 5, 17, 10, 30, 15), 7L);
+
+        assertEquals(cursor, BookingCursor.decode(cursor.encode()));
+        assertNull(BookingCursor.decode(null));
+        assertThrows(BadRequestException.class, () -> BookingCursor.decode("не-курсор"));
+    }
+}
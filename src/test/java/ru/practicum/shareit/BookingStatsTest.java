@@ -0,0 +1,186 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ForbiddenException;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.stats.BookingRollups;
+import ru.practicum.shareit.stats.OwnerStatsDto;
+import ru.practicum.shareit.stats.OwnerStatsService;
+import ru.practicum.shareit.stats.PeriodStatsDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * До старта контекста в базе лежит история бронирований без сводок, как при первом запуске после обновления.
+ * Диапазон заполнения в одну вещь, чтобы история разбилась на несколько параллельных частей.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + BookingStatsTest.URL,
+        "shareit.stats.backfill.chunk-size=1"
+})
+class BookingStatsTest {
+
+    static final String URL = "jdbc:h2:mem:booking-stats;DB_CLOSE_DELAY=-1";
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final long OWNER_ID = 2000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingRollups bookingRollups;
+
+    @Autowired
+    private OwnerStatsService ownerStatsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @BeforeAll
+    static void createHistory() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(URL, "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        JdbcTemplate history = new JdbcTemplate(dataSource);
+        history.update("INSERT INTO users (id, name, email) VALUES (2000, 'Владелец', 'stats-owner@example.com')");
+        history.update("INSERT INTO users (id, name, email) VALUES (2001, 'Букер', 'stats-booker@example.com')");
+        history.update("INSERT INTO users (id, name, email) VALUES (2002, 'Сосед', 'stats-other@example.com')");
+        insertItem(history, 2000, 2000);
+        insertItem(history, 2001, 2000);
+        insertItem(history, 2002, 2002);
+        // Сутки через полночь: по 12 часов на 10 и 11 января
+        insertBooking(history, 2000, 2000, LocalDateTime.of(2020, 1, 10, 12, 0),
+                LocalDateTime.of(2020, 1, 11, 12, 0), "APPROVED");
+        // Через границу месяцев: по 4 часа на январь и февраль
+        insertBooking(history, 2001, 2001, LocalDateTime.of(2020, 1, 31, 20, 0),
+                LocalDateTime.of(2020, 2, 1, 4, 0), "APPROVED");
+        insertBooking(history, 2002, 2001, LocalDateTime.of(2020, 1, 15, 10, 0),
+                LocalDateTime.of(2020, 1, 16, 10, 0), "REJECTED");
+        insertBooking(history, 2003, 2000, LocalDateTime.of(2020, 2, 3, 10, 0),
+                LocalDateTime.of(2020, 2, 4, 10, 0), "WAITING");
+        // Вещь другого владельца
+        insertBooking(history, 2004, 2002, LocalDateTime.of(2020, 1, 10, 12, 0),
+                LocalDateTime.of(2020, 1, 11, 12, 0), "APPROVED");
+        // Бронирование из старой версии без ограничения длительности
+        insertBooking(history, 2005, 2002, LocalDateTime.of(2020, 3, 1, 0, 0),
+                LocalDateTime.of(9999, 1, 1, 0, 0), "APPROVED");
+    }
+
+    private static void insertItem(JdbcTemplate jdbc, long id, long ownerId) {
+        jdbc.update("INSERT INTO items (id, name, description, available, owner_id) "
+                + "VALUES (?, 'Дрель', 'Аккумуляторная дрель', TRUE, ?)", id, ownerId);
+    }
+
+    private static void insertBooking(JdbcTemplate jdbc, long id, long itemId, LocalDateTime start,
+                                      LocalDateTime end, String status) {
+        jdbc.update("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) "
+                + "VALUES (?, ?, ?, ?, 2001, ?)", id, Timestamp.valueOf(start), Timestamp.valueOf(end), itemId, status);
+    }
+
+    @BeforeEach
+    void awaitBackfill() throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!bookingRollups.isReady()) {
+            assertTrue(System.nanoTime() < deadline, "Сводки не заполнены из истории за " + TIMEOUT);
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    void shouldBackfillOwnerStatsFromHistory() {
+        OwnerStatsDto stats = ownerStatsService.getStats(OWNER_ID, OWNER_ID,
+                LocalDate.of(2020, 1, 1), LocalDate.of(2020, 2, 29));
+
+        assertEquals(2, stats.getItems());
+        PeriodStatsDto total = stats.getTotal();
+        assertEquals(4, total.getBookings());
+        assertEquals(2, total.getApproved());
+        assertEquals(1, total.getRejected());
+        assertEquals(2.0 / 3, total.getApprovalRate(), 1e-9);
+        assertEquals(32, total.getBookedHours(), 1e-9);
+        assertEquals(32.0 / (2 * 60 * 24), total.getUtilization(), 1e-9);
+
+        assertEquals(2, stats.getMonths().size());
+        PeriodStatsDto january = stats.getMonths().get(0);
+        assertEquals(LocalDate.of(2020, 1, 1), january.getFrom());
+        assertEquals(LocalDate.of(2020, 1, 31), january.getTo());
+        assertEquals(3, january.getBookings());
+        assertEquals(28, january.getBookedHours(), 1e-9);
+        PeriodStatsDto february = stats.getMonths().get(1);
+        assertEquals(1, february.getBookings());
+        assertEquals(0, february.getApproved());
+        assertNull(february.getApprovalRate());
+        assertEquals(4, february.getBookedHours(), 1e-9);
+    }
+
+    @Test
+    void shouldClipEndlessBookingToStatsHorizon() {
+        // Два дня бронирования 2004 и 3660 дней бронирования 2005 вместо дней до 9999 года
+        assertEquals(2 + 3660, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM item_daily_stats WHERE item_id = 2002", Integer.class));
+        assertEquals(LocalDate.of(2020, 3, 1).plusDays(3659), jdbcTemplate.queryForObject(
+                "SELECT MAX(stats_date) FROM owner_daily_stats WHERE owner_id = 2002", LocalDate.class));
+    }
+
+    @Test
+    void shouldUpdateStatsFromBookingLifecycle() throws InterruptedException {
+        Long ownerId = TestData.createUser(userService, "Владелец");
+        Long bookerId = TestData.createUser(userService, "Букер");
+        Long itemId = TestData.createItem(itemService, ownerId);
+        LocalDate day = LocalDate.now().plusDays(10);
+
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(itemId);
+        bookingDto.setStart(day.atTime(22, 0));
+        bookingDto.setEnd(day.plusDays(1).atTime(2, 0));
+        Long bookingId = bookingService.addBooking(bookerId, bookingDto).getId();
+        bookingService.approveBooking(ownerId, bookingId, true);
+
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        PeriodStatsDto total;
+        do {
+            assertTrue(System.nanoTime() < deadline, "Сводки не обновлены за " + TIMEOUT);
+            Thread.sleep(50);
+            total = ownerStatsService.getStats(ownerId, ownerId, day, day.plusDays(1)).getTotal();
+        } while (total.getApproved() == 0);
+
+        assertEquals(1, total.getBookings());
+        assertEquals(4, total.getBookedHours(), 1e-9);
+        assertEquals(4.0 / (2 * 24), total.getUtilization(), 1e-9);
+
+        // Повторная доставка события ничего не меняет
+        bookingRollups.refresh(itemId, day, day.plusDays(1));
+        assertEquals(total, ownerStatsService.getStats(ownerId, ownerId, day, day.plusDays(1)).getTotal());
+    }
+
+    @Test
+    void shouldShowStatsOnlyToOwnerForValidPeriod() {
+        assertThrows(ForbiddenException.class, () -> ownerStatsService.getStats(2001L, OWNER_ID, null, null));
+        assertThrows(BadRequestException.class, () -> ownerStatsService.getStats(OWNER_ID, OWNER_ID,
+                LocalDate.of(2020, 2, 1), LocalDate.of(2020, 1, 1)));
+        assertEquals(12, ownerStatsService.getStats(OWNER_ID, OWNER_ID, null, null).getMonths().size());
+    }
+}
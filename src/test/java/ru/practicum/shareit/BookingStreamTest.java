@@ -0,0 +1,135 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingResponseDto;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.UserService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class BookingStreamTest {
+
+    private static final Duration EVENT_TIMEOUT = Duration.ofSeconds(10);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @AfterEach
+    void closeClient() {
+        client.shutdownNow();
+    }
+
+    @Test
+    void shouldPushCreatedAndApprovedBookingToBookerAndOwner() throws Exception {
+        Long ownerId = TestData.createUser(userService, "Владелец");
+        Long bookerId = TestData.createUser(userService, "Букер");
+        Long itemId = TestData.createItem(itemService, ownerId);
+        BlockingQueue<BookingResponseDto> bookerEvents = subscribe(bookerId);
+        BlockingQueue<BookingResponseDto> ownerEvents = subscribe(ownerId);
+
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(itemId);
+        bookingDto.setStart(LocalDateTime.now().plusDays(1));
+        bookingDto.setEnd(LocalDateTime.now().plusDays(2));
+        Long bookingId = bookingService.addBooking(bookerId, bookingDto).getId();
+        bookingService.approveBooking(ownerId, bookingId, true);
+
+        for (BlockingQueue<BookingResponseDto> events : List.of(bookerEvents, ownerEvents)) {
+            BookingResponseDto created = next(events);
+            assertEquals(bookingId, created.getId());
+            assertEquals(BookingStatus.WAITING, created.getStatus());
+            assertEquals(bookerId, created.getBooker().getId());
+            BookingResponseDto approved = next(events);
+            assertEquals(bookingId, approved.getId());
+            assertEquals(BookingStatus.APPROVED, approved.getStatus());
+        }
+    }
+
+    @Test
+    void shouldNotPushRolledBackBooking() throws Exception {
+        Long ownerId = TestData.createUser(userService, "Владелец");
+        BlockingQueue<BookingResponseDto> ownerEvents = subscribe(ownerId);
+
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(-1L);
+        bookingDto.setStart(LocalDateTime.now().plusDays(1));
+        bookingDto.setEnd(LocalDateTime.now().plusDays(2));
+        assertThrows(RuntimeException.class, () -> bookingService.addBooking(ownerId, bookingDto));
+
+        assertNull(ownerEvents.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void shouldRejectStreamOfUnknownUser() throws Exception {
+        HttpResponse<Void> response = client.send(streamRequest(-1L), HttpResponse.BodyHandlers.discarding());
+
+        assertEquals(404, response.statusCode());
+    }
+
+    // Ответ приходит, когда подписка уже зарегистрирована; строки data разбираются в фоне
+    private BlockingQueue<BookingResponseDto> subscribe(Long userId) throws Exception {
+        BlockingQueue<BookingResponseDto> events = new LinkedBlockingQueue<>();
+        HttpResponse<Stream<String>> response = client.send(streamRequest(userId),
+                HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, response.statusCode());
+        Thread.ofVirtual().start(() -> response.body()
+                .filter(line -> line.startsWith("data:"))
+                .forEach(line -> {
+                    try {
+                        events.add(objectMapper.readValue(line.substring("data:".length()),
+                                BookingResponseDto.class));
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }));
+        return events;
+    }
+
+    private HttpRequest streamRequest(Long userId) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bookings/stream"))
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .header("Accept", "text/event-stream")
+                .build();
+    }
+
+    private static BookingResponseDto next(BlockingQueue<BookingResponseDto> events) throws InterruptedException {
+        BookingResponseDto event = events.poll(EVENT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        assertNotNull(event, "Событие не пришло за " + EVENT_TIMEOUT);
+        return event;
+    }
+}
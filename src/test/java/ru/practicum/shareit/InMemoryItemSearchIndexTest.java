@@ -0,0 +1,132 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.InMemoryItemSearchIndex;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryItemSearchIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private InMemoryItemSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new InMemoryItemSearchIndex(itemRepository);
+        when(itemRepository.findAll()).thenReturn(List.of(
+                item(1L, "Дрель Салют", "Мощная дрель", true),
+                item(2L, "Отвёртка", "Аккумуляторная отвёртка", true),
+                item(3L, "Дрель старая", "Не работает", false)));
+        searchIndex.rebuild();
+    }
+
+    @Test
+    void shouldFindAvailableItemsBySubstringIgnoringCase() {
+        assertEquals(List.of(1L), searchIds("ДРЕЛЬ"));
+        assertEquals(List.of(2L), searchIds("аккум"));
+        // "о" есть в названии отвёртки и только в описании дрели
+        assertEquals(List.of(2L, 1L), searchIds("о"));
+    }
+
+    @Test
+    void shouldNotQueryRepositoryWhenNothingMatches() {
+        assertTrue(searchIndex.search("пила", 0, 10).isEmpty());
+        verify(itemRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void shouldReflectUpdatedItems() {
+        searchIndex.index(item(2L, "Пила", "Ножовка по дереву", true));
+        searchIndex.index(item(1L, "Дрель Салют", "Мощная дрель", false));
+        searchIndex.index(item(4L, "Дрель новая", "Ударная", true));
+
+        assertEquals(List.of(4L), searchIds("дрель"));
+        assertEquals(List.of(2L), searchIds("ножов"));
+        assertTrue(searchIndex.search("отвёрт", 0, 10).isEmpty());
+    }
+
+    private List<Long> searchIds(String text) {
+        return searchIds(text, 0, 10);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> searchIds(String text, int from, int size) {
+        clearInvocations(itemRepository);
+        when(itemRepository.findAllById(any())).thenReturn(new ArrayList<>());
+        searchIndex.search(text, from, size);
+
+        ArgumentCaptor<Iterable<Long>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(itemRepository).findAllById(captor.capture());
+        List<Long> ids = new ArrayList<>();
+        captor.getValue().forEach(ids::add);
+        return ids;
+    }
+
+    @Test
+    void shouldRankNameMatchesAboveDescriptionMatchesAndPage() {
+        searchIndex.index(item(5L, "Шуруповёрт", "Почти дрель", true));
+        searchIndex.index(item(6L, "Дрель ударная", "Для бетона", true));
+
+        assertEquals(List.of(1L, 6L, 5L), searchIds("дрель"));
+        assertEquals(List.of(6L, 5L), searchIds("дрель", 1, 2));
+        assertEquals(List.of(5L), searchIds("дрель", 2, 2));
+    }
+
+    @Test
+    void shouldReturnItemsInRankedOrder() {
+        Item first = item(1L, "Дрель Салют", "Мощная дрель", true);
+        Item second = item(2L, "Отвёртка", "Аккумуляторная отвёртка", true);
+        when(itemRepository.findAllById(any())).thenReturn(List.of(first, second));
+
+        List<Item> found = searchIndex.search("о", 0, 10);
+
+        assertEquals(List.of(2L, 1L), found.stream().map(Item::getId).toList());
+    }
+
+    @Test
+    void shouldSkipBookedItemsBeforePagingByDates() {
+        searchIndex.index(item(5L, "Шуруповёрт", "Почти дрель", true));
+        searchIndex.index(item(6L, "Дрель ударная", "Для бетона", true));
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime end = start.plusDays(1);
+        // Дрель 1 занята на эти даты
+        when(itemRepository.findIdsFreeBetween(any(), eq(start), eq(end))).thenReturn(List.of(5L, 6L));
+        when(itemRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Item> items = new ArrayList<>();
+            invocation.<Iterable<Long>>getArgument(0).forEach(id -> items.add(item(id, "Дрель", "", true)));
+            return items;
+        });
+
+        assertEquals(List.of(6L, 5L), ids(searchIndex.searchFreeBetween("дрель", start, end, 0, 10)));
+        assertEquals(List.of(5L), ids(searchIndex.searchFreeBetween("дрель", start, end, 1, 1)));
+        assertTrue(searchIndex.searchFreeBetween("дрель", start, end, 2, 10).isEmpty());
+    }
+
+    private static List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).toList();
+    }
+
+    private static Item item(Long id, String name, String description, boolean available) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        item.setAvailable(available);
+        return item;
+    }
+}
@@ -0,0 +1,130 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.ItemAnswerDto;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestDto;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.ItemRequestServiceImpl;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemRequestServiceImplTest {
+
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private ItemRequestServiceImpl itemRequestService;
+
+    @Test
+    void shouldAddRequestForExistingUser() {
+        ItemRequestDto dto = new ItemRequestDto();
+        dto.setDescription("Нужна дрель");
+
+        when(userService.userExists(1L)).thenReturn(true);
+        when(itemRequestRepository.save(any(ItemRequest.class))).thenAnswer(invocation -> {
+            ItemRequest request = invocation.getArgument(0);
+            request.setId(10L);
+            return request;
+        });
+
+        ItemRequestDto created = itemRequestService.addRequest(1L, dto);
+
+        assertEquals(10L, created.getId());
+        assertEquals("Нужна дрель", created.getDescription());
+        assertNotNull(created.getCreated());
+        assertTrue(created.getItems().isEmpty());
+    }
+
+    @Test
+    void shouldLoadAnswersForWholePageInOneQuery() {
+        List<ItemRequest> requests = new ArrayList<>();
+        for (long i = 1; i <= 5; i++) {
+            requests.add(request(i, 2L));
+        }
+
+        when(userService.userExists(1L)).thenReturn(true);
+        when(itemRequestRepository.findAllOtherThan(1L, new OffsetPageRequest(5, 5))).thenReturn(requests);
+        when(itemRepository.findAnswersByRequestIds(List.of(1L, 2L, 3L, 4L, 5L))).thenReturn(List.of(
+                new ItemAnswerDto(100L, "Дрель", 3L, 2L),
+                new ItemAnswerDto(101L, "Перфоратор", 4L, 2L),
+                new ItemAnswerDto(102L, "Пила", 3L, 5L)));
+
+        List<ItemRequestDto> result = itemRequestService.getOtherRequests(1L, 5, 5);
+
+        assertEquals(5, result.size());
+        assertEquals(2, result.get(1).getItems().size());
+        assertEquals("Пила", result.get(4).getItems().get(0).getName());
+        assertTrue(result.get(0).getItems().isEmpty());
+        verify(itemRepository, times(1)).findAnswersByRequestIds(anyCollection());
+    }
+
+    @Test
+    void shouldPageOtherRequestsByExactOffset() {
+        when(userService.userExists(1L)).thenReturn(true);
+        when(itemRequestRepository.findAllOtherThan(1L, new OffsetPageRequest(3, 5))).thenReturn(List.of());
+
+        // Смещение не кратно размеру страницы: первые три запроса пропускаются, а не ноль
+        assertTrue(itemRequestService.getOtherRequests(1L, 3, 5).isEmpty());
+
+        verify(itemRequestRepository).findAllOtherThan(1L, new OffsetPageRequest(3, 5));
+    }
+
+    @Test
+    void shouldNotQueryAnswersForEmptyPage() {
+        when(userService.userExists(1L)).thenReturn(true);
+        when(itemRequestRepository.findAllByRequestorId(1L)).thenReturn(List.of());
+
+        assertTrue(itemRequestService.getOwnRequests(1L).isEmpty());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void shouldRejectInvalidPageParameters() {
+        assertThrows(BadRequestException.class, () -> itemRequestService.getOtherRequests(1L, -1, 10));
+        assertThrows(BadRequestException.class, () -> itemRequestService.getOtherRequests(1L, 0, 0));
+    }
+
+    @Test
+    void shouldThrowWhenRequestOrUserNotFound() {
+        when(userService.userExists(1L)).thenReturn(true);
+        when(userService.userExists(999L)).thenReturn(false);
+        when(itemRequestRepository.findById(42L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> itemRequestService.getRequestById(1L, 42L));
+        assertThrows(NotFoundException.class, () -> itemRequestService.getOwnRequests(999L));
+    }
+
+    private ItemRequest request(Long id, Long requestorId) {
+        ItemRequest request = new ItemRequest();
+        request.setId(id);
+        request.setDescription("Запрос " + id);
+        request.setRequestorId(requestorId);
+        request.setCreated(LocalDateTime.now().minusHours(id));
+        return request;
+    }
+}
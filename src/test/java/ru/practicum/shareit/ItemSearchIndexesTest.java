@@ -0,0 +1,81 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.InMemoryItemSearchIndex;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSearchIndex;
+import ru.practicum.shareit.item.PostgresItemSearchIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Оба индекса поиска на одних данных: страницы и выгрузка должны совпадать. ILIKE запросов
+ * PostgresItemSearchIndex выполняется и на H2, только без триграммных индексов.
+ */
+@DataJpaTest
+class ItemSearchIndexesTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private ItemSearchIndex postgres;
+    private ItemSearchIndex inMemory;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (3000, 'Владелец', 'search@example.com')");
+        // Нечётные вещи совпадают в названии, чётные только в описании
+        for (long id = 3001; id <= 3030; id++) {
+            jdbcTemplate.update("INSERT INTO items (id, name, description, available, owner_id) "
+                    + "VALUES (?, ?, ?, TRUE, 3000)", id,
+                    id % 2 == 1 ? "Дрель " + id : "Пила " + id,
+                    id % 2 == 1 ? "Инструмент" : "Почти дрель");
+        }
+        postgres = new PostgresItemSearchIndex(itemRepository);
+        InMemoryItemSearchIndex index = new InMemoryItemSearchIndex(itemRepository);
+        index.rebuild();
+        inMemory = index;
+    }
+
+    @Test
+    void shouldReturnSamePagesForExactOffsets() {
+        for (int from : new int[]{0, 5, 13, 25}) {
+            List<Long> expected = ids(inMemory.search("ДРЕЛЬ", from, 10));
+            assertEquals(expected, ids(postgres.search("ДРЕЛЬ", from, 10)), "from=" + from);
+        }
+        assertEquals(3011L, inMemory.search("дрель", 5, 10).get(0).getId());
+    }
+
+    @Test
+    void shouldExportAllMatchesInSearchOrder() {
+        List<Long> expected = ids(inMemory.search("дрель", 0, 100));
+        assertEquals(30, expected.size());
+
+        assertEquals(expected, exportIds(inMemory));
+        assertEquals(expected, exportIds(postgres));
+    }
+
+    private static List<Long> exportIds(ItemSearchIndex index) {
+        List<Long> ids = new ArrayList<>();
+        index.export("дрель", 7, batch -> {
+            assertTrue(batch.size() <= 7);
+            ids.addAll(ids(batch));
+        });
+        return ids;
+    }
+
+    private static List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).toList();
+    }
+}
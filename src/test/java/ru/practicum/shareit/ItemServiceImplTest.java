@@ -1,28 +1,48 @@
 package ru.practicum.shareit;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.ItemBookingView;
+import ru.practicum.shareit.comment.CommentDto;
 import ru.practicum.shareit.comment.CommentRepository;
+import ru.practicum.shareit.comment.CommentView;
+import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemAvailabilityDto;
+import ru.practicum.shareit.item.ItemChangedEvent;
 import ru.practicum.shareit.item.ItemDto;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSearchIndex;
 import ru.practicum.shareit.item.ItemServiceImpl;
+import ru.practicum.shareit.item.ItemView;
+import ru.practicum.shareit.item.ItemViewCache;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.UserService;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,9 +60,27 @@ class ItemServiceImplTest {
     @Mock
     private CommentRepository commentRepository;
 
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+
     @Mock
     private UserService userService;
 
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
+    @Mock
+    private ItemViewCache itemViewCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -69,6 +107,30 @@ class ItemServiceImplTest {
         assertNotNull(created);
         assertEquals("Дрель", created.getName());
         verify(itemRepository, times(1)).save(any(Item.class));
+        verify(itemSearchIndex, times(1)).index(item);
+    }
+
+    @Test
+    void shouldReturnNoFreeSlotsForUnavailableItem() {
+        ItemDto itemDto = new ItemDto();
+        itemDto.setId(1L);
+        itemDto.setAvailable(false);
+        when(itemViewCache.get(1L)).thenReturn(new ItemView(2L, itemDto, List.of()));
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        ItemAvailabilityDto availability = itemService.getAvailability(1L, from, from.plusDays(1));
+
+        assertTrue(availability.getFree().isEmpty());
+        verifyNoInteractions(bookingIntervalIndex);
+    }
+
+    @Test
+    void shouldRejectEmptyOrTooLongAvailabilityWindow() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        assertThrows(BadRequestException.class, () -> itemService.getAvailability(1L, from, from));
+        assertThrows(BadRequestException.class, () -> itemService.getAvailability(1L, from, from.plusYears(2)));
+        verifyNoInteractions(itemViewCache, bookingIntervalIndex);
     }
 
     @Test
@@ -85,6 +147,22 @@ class ItemServiceImplTest {
         verify(itemRepository, never()).save(any(Item.class));
     }
 
+    @Test
+    void shouldRejectItemForUnknownRequest() {
+        Long userId = 1L;
+        ItemDto itemDto = new ItemDto();
+        itemDto.setName("Дрель");
+        itemDto.setDescription("Мощная дрель");
+        itemDto.setAvailable(true);
+        itemDto.setRequestId(42L);
+
+        when(userService.userExists(userId)).thenReturn(true);
+        when(itemRequestRepository.existsById(42L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> itemService.addItem(userId, itemDto));
+        verify(itemRepository, never()).save(any(Item.class));
+    }
+
     @Test
     void shouldUpdateItem() {
         Long userId = 1L;
@@ -107,6 +185,7 @@ class ItemServiceImplTest {
 
         assertEquals("Дрель обновлённая", updated.getName());
         verify(itemRepository, times(1)).save(any(Item.class));
+        verify(eventPublisher, times(1)).publishEvent(any(ItemChangedEvent.class));
     }
 
     @Test
@@ -134,20 +213,116 @@ class ItemServiceImplTest {
         Long itemId = 1L;
         Long userId = 1L;
 
-        Item item = new Item();
-        item.setId(itemId);
-        item.setName("Дрель");
-        item.setOwner(userId);
+        ItemDto cached = new ItemDto();
+        cached.setId(itemId);
+        cached.setName("Дрель");
+        cached.setComments(Collections.emptyList());
 
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(commentRepository.findAllByItemId(itemId)).thenReturn(Collections.emptyList());
-        when(bookingRepository.findLastBookingForItem(anyLong(), any())).thenReturn(null);
-        when(bookingRepository.findNextBookingForItem(anyLong(), any())).thenReturn(null);
+        when(itemViewCache.get(itemId)).thenReturn(new ItemView(userId, cached, List.of()));
+        when(bookingRepository.findLastAndNextBookingsForItems(eq(List.of(itemId)), any()))
+                .thenReturn(Collections.emptyList());
 
         ItemDto found = itemService.getItemById(itemId, userId);
 
         assertEquals(itemId, found.getId());
         assertEquals("Дрель", found.getName());
+        assertNull(found.getLastBooking());
+        assertNull(found.getNextBooking());
+        assertNotSame(cached, found);
+    }
+
+    @Test
+    void shouldResolveCommentAuthorsThroughUserCacheOnRead() {
+        ItemDto cached = new ItemDto();
+        cached.setId(1L);
+        LocalDateTime created = LocalDateTime.of(2030, 1, 1, 12, 0);
+        when(itemViewCache.get(1L)).thenReturn(new ItemView(1L, cached, List.of(
+                new CommentView(10L, "Отличная дрель", 5L, created),
+                new CommentView(11L, "Удалённый автор", 6L, created),
+                new CommentView(12L, "Ещё раз спасибо", 5L, created))));
+        UserDto author = new UserDto();
+        author.setId(5L);
+        author.setName("Новое имя");
+        when(userService.userExists(5L)).thenReturn(true);
+        when(userService.userExists(6L)).thenReturn(false);
+        when(userService.getUserById(5L)).thenReturn(author);
+
+        ItemDto found = itemService.getItemById(1L, 2L);
+
+        assertEquals(List.of(10L, 12L), found.getComments().stream().map(CommentDto::getId).toList());
+        assertEquals("Новое имя", found.getComments().get(0).getAuthorName());
+        verify(userService, times(1)).getUserById(5L);
+        verify(userService, never()).getUserById(6L);
+    }
+
+    @Test
+    void shouldNotLoadBookingsForNonOwnerItemView() {
+        ItemDto cached = new ItemDto();
+        cached.setId(1L);
+        cached.setName("Дрель");
+
+        when(itemViewCache.get(1L)).thenReturn(new ItemView(1L, cached, List.of()));
+
+        ItemDto found = itemService.getItemById(1L, 2L);
+
+        assertEquals("Дрель", found.getName());
+        verify(bookingRepository, never()).findLastAndNextBookingsForItems(anyCollection(), any());
+    }
+
+    @Test
+    void shouldLoadLastAndNextBookingsForAllOwnerItemsInOneQuery() {
+        Long userId = 1L;
+        List<Item> items = new ArrayList<>();
+        for (long i = 1; i <= 3; i++) {
+            Item item = new Item();
+            item.setId(i);
+            item.setName("Вещь " + i);
+            item.setOwner(userId);
+            items.add(item);
+        }
+
+        when(itemRepository.findAllByOwner(userId)).thenReturn(items);
+        when(bookingRepository.findLastAndNextBookingsForItems(eq(List.of(1L, 2L, 3L)), any()))
+                .thenReturn(List.of(
+                        bookingView(10L, 5L, 1L, ItemBookingView.LAST),
+                        bookingView(11L, 6L, 1L, ItemBookingView.NEXT),
+                        bookingView(12L, 7L, 3L, ItemBookingView.NEXT)));
+        when(commentRepository.findAllByItemIdIn(anyList())).thenReturn(Collections.emptyList());
+
+        List<ItemDto> found = itemService.getItemsByOwner(userId);
+
+        assertEquals(10L, found.get(0).getLastBooking().getId());
+        assertEquals(5L, found.get(0).getLastBooking().getBookerId());
+        assertEquals(11L, found.get(0).getNextBooking().getId());
+        assertNull(found.get(1).getLastBooking());
+        assertNull(found.get(1).getNextBooking());
+        assertNull(found.get(2).getLastBooking());
+        assertEquals(12L, found.get(2).getNextBooking().getId());
+        verify(bookingRepository, times(1)).findLastAndNextBookingsForItems(anyCollection(), any());
+    }
+
+    private static ItemBookingView bookingView(Long id, Long bookerId, Long itemId, String kind) {
+        return new ItemBookingView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getBookerId() {
+                return bookerId;
+            }
+
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public String getKind() {
+                return kind;
+            }
+        };
     }
 
     @Test
@@ -157,9 +332,9 @@ class ItemServiceImplTest {
         item.setName("Дрель Салют");
         item.setAvailable(true);
 
-        when(itemRepository.searchByText("дрель")).thenReturn(List.of(item));
+        when(itemSearchIndex.search("дрель", 0, 10)).thenReturn(List.of(item));
 
-        List<ItemDto> found = itemService.searchItems("дрель");
+        List<ItemDto> found = itemService.searchItems("дрель", 0, 10);
 
         assertEquals(1, found.size());
         assertEquals("Дрель Салют", found.get(0).getName());
@@ -167,9 +342,66 @@ class ItemServiceImplTest {
 
     @Test
     void shouldReturnEmptyListForEmptySearch() {
-        List<ItemDto> found = itemService.searchItems("");
+        List<ItemDto> found = itemService.searchItems("", 0, 10);
 
         assertTrue(found.isEmpty());
-        verify(itemRepository, never()).searchByText(anyString());
+        verify(itemSearchIndex, never()).search(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void shouldCapSearchResults() {
+        Item item = new Item();
+        item.setId(1L);
+        item.setName("Дрель");
+        item.setAvailable(true);
+
+        when(itemSearchIndex.search("дрель", 990, 20)).thenReturn(Collections.nCopies(20, item));
+
+        assertEquals(10, itemService.searchItems("дрель", 990, 20).size());
+        assertTrue(itemService.searchItems("дрель", 1000, 20).isEmpty());
+        assertThrows(BadRequestException.class, () -> itemService.searchItems("дрель", 0, 0));
+    }
+
+    @Test
+    void shouldSearchFreeItemsOnlyWhenWholeWindowGiven() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime end = start.plusDays(2);
+        Item item = new Item();
+        item.setId(1L);
+        item.setName("Дрель");
+        item.setAvailable(true);
+        when(itemSearchIndex.searchFreeBetween("дрель", start, end, 0, 10)).thenReturn(List.of(item));
+
+        assertEquals(1, itemService.searchItems("дрель", start, end, 0, 10).size());
+        assertThrows(BadRequestException.class, () -> itemService.searchItems("дрель", start, null, 0, 10));
+        assertThrows(BadRequestException.class, () -> itemService.searchItems("дрель", end, start, 0, 10));
+        verify(itemSearchIndex, never()).search(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void shouldExportSearchResultsInBatches() {
+        List<Item> firstBatch = new ArrayList<>();
+        for (long i = 1; i <= 500; i++) {
+            Item item = new Item();
+            item.setId(i);
+            item.setName("Дрель " + i);
+            item.setAvailable(true);
+            firstBatch.add(item);
+        }
+
+        doAnswer(invocation -> {
+            Consumer<List<Item>> consumer = invocation.getArgument(2);
+            consumer.accept(firstBatch);
+            consumer.accept(firstBatch.subList(0, 3));
+            return null;
+        }).when(itemSearchIndex).export(eq("дрель"), eq(500), any());
+
+        List<ItemDto> exported = new ArrayList<>();
+        itemService.exportSearchItems("дрель", exported::add);
+
+        assertEquals(503, exported.size());
+        verify(itemSearchIndex, never()).search(anyString(), anyInt(), anyInt());
+        // Загруженные вещи не копятся в контексте сохраняемости между пачками
+        verify(entityManager, times(2)).clear();
     }
 }
\ No newline at end of file
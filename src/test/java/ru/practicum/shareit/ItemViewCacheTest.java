@@ -0,0 +1,82 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import ru.practicum.shareit.comment.CommentDto;
+import ru.practicum.shareit.comment.CommentMapper;
+import ru.practicum.shareit.comment.CommentRepository;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.user.UserDto;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ItemViewCacheTest extends SharedContextTest {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private Long ownerId;
+    private Long otherId;
+    private Long itemId;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.ITEMS).clear();
+
+        ownerId = createUser("Владелец");
+        otherId = createUser("Гость");
+
+        itemId = createItem(ownerId);
+        clearInvocations(itemRepository);
+    }
+
+    @Test
+    void shouldServeRepeatedReadsFromCache() {
+        itemService.getItemById(itemId, otherId);
+        itemService.getItemById(itemId, otherId);
+        itemService.getItemById(itemId, ownerId);
+
+        verify(itemRepository, times(1)).findById(itemId);
+    }
+
+    @Test
+    void shouldEvictCachedViewOnUpdate() {
+        itemService.getItemById(itemId, otherId);
+
+        ItemDto update = new ItemDto();
+        update.setName("Дрель ударная");
+        itemService.updateItem(ownerId, itemId, update);
+
+        assertEquals("Дрель ударная", itemService.getItemById(itemId, otherId).getName());
+    }
+
+    @Test
+    void shouldNotLeakRequestSpecificFieldsIntoCache() {
+        ItemDto ownerView = itemService.getItemById(itemId, ownerId);
+        ownerView.setName("Изменено в ответе");
+
+        assertEquals("Дрель", itemService.getItemById(itemId, otherId).getName());
+    }
+
+    @Test
+    void shouldShowRenamedCommentAuthorWithoutReloadingCard() {
+        CommentDto commentDto = new CommentDto();
+        commentDto.setText("Отличная дрель");
+        commentRepository.save(CommentMapper.toComment(commentDto, itemId, otherId));
+        assertEquals("Гость", itemService.getItemById(itemId, ownerId).getComments().get(0).getAuthorName());
+
+        UserDto rename = new UserDto();
+        rename.setName("Постоянный гость");
+        userService.updateUser(otherId, rename);
+
+        assertEquals("Постоянный гость",
+                itemService.getItemById(itemId, ownerId).getComments().get(0).getAuthorName());
+        verify(itemRepository, times(1)).findById(itemId);
+    }
+}
@@ -0,0 +1,193 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.outbox.OutboxDispatcher;
+import ru.practicum.shareit.outbox.OutboxEvent;
+import ru.practicum.shareit.outbox.OutboxEventRepository;
+import ru.practicum.shareit.outbox.OutboxHandler;
+import ru.practicum.shareit.outbox.OutboxInFlight;
+import ru.practicum.shareit.outbox.OutboxStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxDispatcherTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> handled = new ArrayList<>();
+    private final Set<Long> failing = new HashSet<>();
+    private boolean ready = true;
+
+    private final OutboxInFlight outboxInFlight = new OutboxInFlight();
+
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        OutboxHandler handler = new OutboxHandler() {
+            @Override
+            public boolean supports(String type) {
+                return "BOOKING_CREATED".equals(type);
+            }
+
+            @Override
+            public void handle(OutboxEvent event) {
+                if (failing.contains(event.getId())) {
+                    throw new IllegalStateException("Сбой обработчика");
+                }
+                handled.add(event.getId());
+            }
+
+            @Override
+            public boolean isReady() {
+                return ready;
+            }
+        };
+        dispatcher = new OutboxDispatcher(outboxEventRepository, outboxInFlight, transactionManager, List.of(handler),
+                100, 3, Duration.ofSeconds(1), Duration.ofSeconds(2));
+    }
+
+    @Test
+    void shouldDeliverBatchInOrderAndDeleteItWithOneStatement() {
+        when(outboxEventRepository.findDue(eq(NOW), any())).thenReturn(List.of(
+                event(1L, 10L, "BOOKING_CREATED", 0),
+                event(2L, 20L, "BOOKING_CREATED", 0),
+                event(3L, 10L, "UNKNOWN", 0)));
+
+        assertEquals(3, dispatcher.dispatch(NOW));
+
+        assertEquals(List.of(1L, 2L), handled);
+        // Событие без обработчика тоже считается доставленным
+        verify(outboxEventRepository).deleteByIdIn(List.of(1L, 2L, 3L));
+        verify(outboxEventRepository, never()).markFailedAttempt(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void shouldHoldLaterEventsOfItemBehindFailedOne() {
+        failing.add(1L);
+        when(outboxEventRepository.findDue(eq(NOW), any())).thenReturn(List.of(
+                event(1L, 10L, "BOOKING_CREATED", 0),
+                event(2L, 20L, "BOOKING_CREATED", 0),
+                event(3L, 10L, "BOOKING_CREATED", 0)));
+
+        dispatcher.dispatch(NOW);
+
+        assertEquals(List.of(2L), handled);
+        verify(outboxEventRepository).deleteByIdIn(List.of(2L));
+        verify(outboxEventRepository).markFailedAttempt(1L, OutboxStatus.PENDING, NOW.plusSeconds(2),
+                "Сбой обработчика");
+        verify(outboxEventRepository, never()).markFailedAttempt(eq(3L), any(), any(), any());
+    }
+
+    @Test
+    void shouldHoldBackLaterEventsOfItemUntilEarlierTransactionCompletes() {
+        OutboxInFlight.Entry earlier = outboxInFlight.begin(10L);
+        earlier.setEventId(1L);
+        // Событие 2 зафиксировано раньше события 1, выданного незавершённой транзакции
+        when(outboxEventRepository.findDue(eq(NOW), any())).thenReturn(List.of(
+                event(2L, 10L, "BOOKING_CREATED", 0),
+                event(3L, 20L, "BOOKING_CREATED", 0)));
+
+        assertEquals(1, dispatcher.dispatch(NOW));
+
+        assertEquals(List.of(3L), handled);
+        verify(outboxEventRepository).deleteByIdIn(List.of(3L));
+
+        outboxInFlight.complete(earlier);
+        when(outboxEventRepository.findDue(eq(NOW), any())).thenReturn(List.of(
+                event(1L, 10L, "BOOKING_CREATED", 0),
+                event(2L, 10L, "BOOKING_CREATED", 0)));
+
+        assertEquals(2, dispatcher.dispatch(NOW));
+
+        assertEquals(List.of(3L, 1L, 2L), handled);
+    }
+
+    @Test
+    void shouldHoldBackEventsOfItemWhoseTransactionCompletedDuringQuery() {
+        OutboxInFlight.Entry earlier = outboxInFlight.begin(10L);
+        earlier.setEventId(1L);
+        // Транзакция с событием 1 зафиксирована, когда выборка его уже не увидела
+        when(outboxEventRepository.findDue(eq(NOW), any())).thenAnswer(invocation -> {
+            outboxInFlight.complete(earlier);
+            return List.of(event(2L, 10L, "BOOKING_CREATED", 0));
+        });
+
+        assertEquals(0, dispatcher.dispatch(NOW));
+
+        assertTrue(handled.isEmpty());
+        verify(outboxEventRepository, never()).deleteByIdIn(any());
+    }
+
+    @Test
+    void shouldHoldBackAllEventsOfItemWhileTransactionHasNoEventIdYet() {
+        outboxInFlight.begin(10L);
+        when(outboxEventRepository.findDue(eq(NOW), any())).thenReturn(List.of(
+                event(1L, 10L, "BOOKING_CREATED", 0)));
+
+        assertEquals(0, dispatcher.dispatch(NOW));
+
+        assertTrue(handled.isEmpty());
+    }
+
+    @Test
+    void shouldHoldBackDispatchWithoutSpendingAttemptsUntilHandlersAreReady() {
+        ready = false;
+
+        assertEquals(0, dispatcher.dispatch(NOW));
+
+        verifyNoInteractions(outboxEventRepository);
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void shouldBackOffExponentiallyAndGiveUpAfterMaxAttempts() {
+        failing.addAll(List.of(1L, 2L));
+        when(outboxEventRepository.findDue(eq(NOW), any())).thenReturn(List.of(
+                event(1L, 10L, "BOOKING_CREATED", 1),
+                event(2L, 20L, "BOOKING_CREATED", 2)));
+
+        dispatcher.dispatch(NOW);
+
+        verify(outboxEventRepository).markFailedAttempt(1L, OutboxStatus.PENDING, NOW.plusSeconds(4),
+                "Сбой обработчика");
+        verify(outboxEventRepository).markFailedAttempt(2L, OutboxStatus.FAILED, NOW, "Сбой обработчика");
+        verify(outboxEventRepository, never()).deleteByIdIn(any());
+    }
+
+    private static OutboxEvent event(Long id, Long itemId, String type, int attempts) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setItemId(itemId);
+        event.setType(type);
+        event.setPayload("{}");
+        event.setStatus(OutboxStatus.PENDING);
+        event.setAttempts(attempts);
+        event.setCreated(NOW);
+        event.setNextAttemptAt(NOW);
+        return event;
+    }
+}
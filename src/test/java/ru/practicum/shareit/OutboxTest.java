@@ -0,0 +1,83 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingEventMetrics;
+import ru.practicum.shareit.booking.BookingEventType;
+import ru.practicum.shareit.booking.BookingService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboxTest extends SharedContextTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void shouldDeliverCommittedBookingEventsAndRemoveThem() throws InterruptedException {
+        Long ownerId = createUser("Владелец");
+        Long bookerId = createUser("Букер");
+        Long itemId = createItem(ownerId);
+        double created = eventCount(BookingEventType.BOOKING_CREATED);
+        double approved = eventCount(BookingEventType.BOOKING_APPROVED);
+
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(itemId);
+        bookingDto.setStart(LocalDateTime.now().plusDays(1));
+        bookingDto.setEnd(LocalDateTime.now().plusDays(2));
+        Long bookingId = bookingService.addBooking(bookerId, bookingDto).getId();
+        bookingService.approveBooking(ownerId, bookingId, true);
+
+        awaitNoEvents(itemId);
+        assertEquals(created + 1, eventCount(BookingEventType.BOOKING_CREATED));
+        assertEquals(approved + 1, eventCount(BookingEventType.BOOKING_APPROVED));
+    }
+
+    @Test
+    void shouldNotWriteEventOfRolledBackBooking() {
+        Long ownerId = createUser("Владелец");
+        Long itemId = createItem(ownerId);
+
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(itemId);
+        bookingDto.setStart(LocalDateTime.now().plusDays(1));
+        bookingDto.setEnd(LocalDateTime.now().plusDays(2));
+        // Владелец не может бронировать свою вещь
+        assertThrows(RuntimeException.class, () -> bookingService.addBooking(ownerId, bookingDto));
+
+        assertEquals(0, countEvents(itemId));
+    }
+
+    private void awaitNoEvents(Long itemId) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (countEvents(itemId) > 0) {
+            assertTrue(System.nanoTime() < deadline, "События вещи " + itemId + " не доставлены за " + TIMEOUT);
+            Thread.sleep(50);
+        }
+    }
+
+    private int countEvents(Long itemId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events WHERE item_id = ?",
+                Integer.class, itemId);
+    }
+
+    private double eventCount(BookingEventType type) {
+        Counter counter = meterRegistry.find(BookingEventMetrics.EVENTS).tag("type", type.name()).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
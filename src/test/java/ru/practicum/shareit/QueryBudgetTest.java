@@ -0,0 +1,125 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.metrics.SqlStatementCounter;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Бюджет SQL-запросов на эндпоинт по метрике STATEMENTS_PER_REQUEST. Сводка общая для всех тестов контекста,
+ * поэтому сравнивается прирост суммы до и после одного запроса.
+ * Своя база нужна, чтобы блоки последовательностей выбирались в setUp, а не посреди измеряемого запроса.
+ */
+@SpringBootTest(properties = "spring.datasource.url=" + QueryBudgetTest.URL)
+@AutoConfigureMockMvc
+class QueryBudgetTest {
+
+    static final String URL = "jdbc:h2:mem:query-budget;DB_CLOSE_DELAY=-1";
+
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+    private Long bookingId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = TestData.createUser(userService, "Владелец");
+        bookerId = TestData.createUser(userService, "Букер");
+        itemId = TestData.createItem(itemService, ownerId);
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(itemId);
+        bookingDto.setStart(LocalDateTime.now().plusDays(1));
+        bookingDto.setEnd(LocalDateTime.now().plusDays(2));
+        bookingId = bookingService.addBooking(bookerId, bookingDto).getId();
+    }
+
+    @Test
+    void getBookingShouldTakeOneStatement() throws Exception {
+        assertBudget(1, "GET", "/bookings/{bookingId}",
+                get("/bookings/{bookingId}", bookingId).header(USER_ID_HEADER, bookerId), status().isOk());
+        assertBudget(1, "GET", "/bookings/{bookingId}",
+                get("/bookings/{bookingId}", bookingId).header(USER_ID_HEADER, ownerId), status().isOk());
+        Long strangerId = TestData.createUser(userService, "Чужой");
+        assertBudget(1, "GET", "/bookings/{bookingId}",
+                get("/bookings/{bookingId}", bookingId).header(USER_ID_HEADER, strangerId), status().isForbidden());
+    }
+
+    @Test
+    void approveBookingShouldReadUpdateAndWriteOutboxOnce() throws Exception {
+        assertBudget(3, "PATCH", "/bookings/{bookingId}",
+                patch("/bookings/{bookingId}", bookingId).param("approved", "true").header(USER_ID_HEADER, ownerId),
+                status().isOk());
+        // Чужой пользователь получает отказ без UPDATE
+        assertBudget(1, "PATCH", "/bookings/{bookingId}",
+                patch("/bookings/{bookingId}", bookingId).param("approved", "false").header(USER_ID_HEADER, bookerId),
+                status().isForbidden());
+    }
+
+    @Test
+    void updateItemShouldReadOnceAndUpdateOnce() throws Exception {
+        assertBudget(2, "PATCH", "/items/{itemId}",
+                patch("/items/{itemId}", itemId).header(USER_ID_HEADER, ownerId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Дрель ударная\"}"),
+                status().isOk());
+        assertBudget(1, "PATCH", "/items/{itemId}",
+                patch("/items/{itemId}", itemId).header(USER_ID_HEADER, bookerId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Чужая дрель\"}"),
+                status().isForbidden());
+    }
+
+    private void assertBudget(int budget, String method, String uri, RequestBuilder request, ResultMatcher expected)
+            throws Exception {
+        double before = totalStatements(method, uri);
+        mockMvc.perform(request).andExpect(expected);
+        double statements = totalStatements(method, uri) - before;
+
+        assertEquals(budget, statements, 0.0, method + " " + uri + ": SQL-запросов " + statements
+                + " при бюджете " + budget);
+    }
+
+    private double totalStatements(String method, String uri) {
+        DistributionSummary summary = meterRegistry.find(SqlStatementCounter.STATEMENTS_PER_REQUEST)
+                .tag("method", method)
+                .tag("uri", uri)
+                .summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+}
@@ -0,0 +1,155 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.BookingPhase;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxEventRepository;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.stats.ItemDailyStatsRepository;
+import ru.practicum.shareit.stats.OwnerDailyStatsRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет планы выполнения запросов репозиториев: ни один из них не должен сканировать таблицу целиком.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.QueryPlanTest$CapturingInspector")
+class QueryPlanTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+    private static final PageRequest PAGE = PageRequest.of(1, 10);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ItemDailyStatsRepository itemDailyStatsRepository;
+
+    @Autowired
+    private OwnerDailyStatsRepository ownerDailyStatsRepository;
+
+    @BeforeEach
+    void setUp() {
+        CapturingInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void bookerQueriesShouldUseIndexes() {
+        assertIndexed(() -> bookingRepository.findAllByBookerIdOrderByStartDesc(1L, NOW, 1L, PAGE));
+        for (BookingPhase phase : BookingPhase.values()) {
+            assertIndexed(() -> bookingRepository.findAllByBookerIdAndPhase(1L, phase, NOW, 1L, PAGE));
+        }
+        assertIndexed(() -> bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(1L,
+                BookingStatus.WAITING, NOW, 1L, PAGE));
+    }
+
+    @Test
+    void ownerQueriesShouldUseIndexes() {
+        assertIndexed(() -> bookingRepository.findAllByItemOwnerId(1L, NOW, 1L, PAGE));
+        for (BookingPhase phase : BookingPhase.values()) {
+            assertIndexed(() -> bookingRepository.findAllByItemOwnerIdAndPhase(1L, phase, NOW, 1L, PAGE));
+        }
+        assertIndexed(() -> bookingRepository.findAllByItemOwnerIdAndStatus(1L,
+                BookingStatus.REJECTED, NOW, 1L, PAGE));
+    }
+
+    @Test
+    void itemBookingQueriesShouldUseIndexes() {
+        assertIndexed(() -> bookingRepository.findLastAndNextBookingsForItems(List.of(1L, 2L, 3L), NOW));
+        assertIndexed(() -> bookingRepository.existsCompletedBookingByBookerAndItem(1L, 1L, NOW));
+        assertIndexed(() -> bookingRepository.findActiveByItemId(1L,
+                List.of(BookingStatus.WAITING, BookingStatus.APPROVED), NOW));
+    }
+
+    @Test
+    void phaseTransitionQueriesShouldUseIndexes() {
+        assertIndexed(() -> bookingRepository.findIdsStartedBefore(BookingPhase.FUTURE, NOW, PAGE));
+        assertIndexed(() -> bookingRepository.findIdsEndedBefore(
+                List.of(BookingPhase.FUTURE, BookingPhase.CURRENT), NOW, PAGE));
+        assertIndexed(() -> bookingRepository.findEarliestStart(BookingPhase.FUTURE));
+        assertIndexed(() -> bookingRepository.findEarliestEnd(BookingPhase.CURRENT));
+    }
+
+    @Test
+    void itemQueriesShouldUseIndexes() {
+        assertIndexed(() -> itemRepository.findAllByOwner(1L));
+        assertIndexed(() -> itemRepository.findAnswersByRequestIds(List.of(1L, 2L, 3L)));
+        assertIndexed(() -> itemRepository.findIdsFreeBetween(List.of(1L, 2L, 3L), NOW, NOW.plusDays(1)));
+        // searchByText рассчитан на триграммные GIN-индексы Postgres, на H2 поиск идёт через InMemoryItemSearchIndex
+    }
+
+    @Test
+    void outboxQueriesShouldUseIndexes() {
+        assertIndexed(() -> outboxEventRepository.findDue(NOW, PAGE));
+    }
+
+    @Test
+    void statsQueriesShouldUseIndexes() {
+        assertIndexed(() -> bookingRepository.findStatsByItemIdBetween(1L, NOW, NOW.plusDays(1)));
+        assertIndexed(() -> bookingRepository.findStatsByItemIdRange(1L, 1000L));
+        assertIndexed(() -> itemRepository.findOwnerIdById(1L));
+        assertIndexed(() -> itemRepository.countByOwner(1L));
+        LocalDate day = NOW.toLocalDate();
+        assertIndexed(() -> itemDailyStatsRepository.findByItemIdBetween(1L, day, day.plusDays(1)));
+        assertIndexed(() -> ownerDailyStatsRepository.findByOwnerIdBetween(1L, day, day.plusMonths(1)));
+    }
+
+    @Test
+    void requestQueriesShouldUseIndexes() {
+        assertIndexed(() -> itemRequestRepository.findAllByRequestorId(1L));
+    }
+
+    private void assertIndexed(Runnable query) {
+        CapturingInspector.STATEMENTS.clear();
+        query.run();
+        assertFalse(CapturingInspector.STATEMENTS.isEmpty(), "Запрос не был выполнен");
+
+        for (String sql : CapturingInspector.STATEMENTS) {
+            String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class,
+                    new Object[countParameters(sql)]));
+            assertFalse(plan.contains(".tableScan"), "Полное сканирование таблицы:\n" + plan);
+        }
+    }
+
+    private static int countParameters(String sql) {
+        return (int) sql.chars().filter(c -> c == '?').count();
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
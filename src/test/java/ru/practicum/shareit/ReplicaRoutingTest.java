@@ -0,0 +1,129 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingResponseDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Две базы H2: основная и реплика. Вторая реплика недоступна и должна пропускаться проверкой здоровья.
+ * Репликация не настроена, поэтому по содержимому видно, куда ушёл запрос.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "shareit.datasource.replicas[0].url=" + ReplicaRoutingTest.REPLICA_URL,
+        "shareit.datasource.replicas[1].url=jdbc:h2:tcp://localhost:1/unreachable",
+        "shareit.datasource.health-check-interval=1h"
+})
+@AutoConfigureMockMvc
+class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static JdbcTemplate replica;
+
+    // Схема реплики нужна до старта контекста: индекс поиска читает вещи при запуске
+    @BeforeAll
+    static void createReplicaSchema() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(REPLICA_URL);
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        replica = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void shouldReadFromHealthyReplicaAndWriteToPrimary() {
+        String replicaEmail = "replica-" + System.nanoTime() + "@example.com";
+        replica.update("INSERT INTO users (name, email) VALUES (?, ?)", "Реплика", replicaEmail);
+        UserDto primary = new UserDto();
+        primary.setName("Основная");
+        primary.setEmail("primary-" + System.nanoTime() + "@example.com");
+        String primaryEmail = userService.createUser(primary).getEmail();
+
+        for (int i = 0; i < 4; i++) {
+            List<String> emails = userService.getAllUsers().stream().map(UserDto::getEmail).toList();
+            assertTrue(emails.contains(replicaEmail));
+            assertFalse(emails.contains(primaryEmail));
+        }
+        assertEquals(0, replica.queryForObject("SELECT COUNT(*) FROM users WHERE email = ?", Integer.class,
+                primaryEmail));
+    }
+
+    @Test
+    void shouldReadOwnBookingFromPrimaryRightAfterWriting() throws Exception {
+        Long ownerId = TestData.createUser(userService, "Владелец");
+        Long bookerId = TestData.createUser(userService, "Букер");
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(TestData.createItem(itemService, ownerId));
+        bookingDto.setStart(LocalDateTime.now().plusDays(1));
+        bookingDto.setEnd(LocalDateTime.now().plusDays(2));
+
+        String response = mockMvc.perform(post("/bookings")
+                        .header("X-Sharer-User-Id", bookerId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookingDto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long bookingId = objectMapper.readValue(response, BookingResponseDto.class).getId();
+
+        // Автор бронирования читает с основной базы, владелец вещи — с реплики, где бронирования ещё нет
+        mockMvc.perform(get("/bookings/{bookingId}", bookingId).header("X-Sharer-User-Id", bookerId))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/bookings/{bookingId}", bookingId).header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldLoadCachesFromPrimary() {
+        // Реплика не видит новых записей, как отставшая: загрузчик кэша с реплики вернул бы 404 на 10 минут
+        Long ownerId = TestData.createUser(userService, "Владелец");
+        Long itemId = TestData.createItem(itemService, ownerId);
+
+        assertEquals(ownerId, userService.getUserById(ownerId).getId());
+        assertTrue(userService.userExists(ownerId));
+        assertEquals("Дрель", itemService.getItemById(itemId, ownerId).getName());
+
+        // Загрузчик присоединяется к читающей транзакции вызывающего и всё равно берёт соединение с основной базы
+        Long otherId = TestData.createUser(userService, "Сосед");
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        assertEquals(otherId, readOnly.execute(status -> userService.getUserById(otherId).getId()));
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.practicum.shareit.user.UserService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * База в состоянии до перехода на последовательности: users с IDENTITY и тремя строками.
+ * Шаг users_seq изменён на 10, чтобы проверить, что Hibernate берёт размер блока из базы.
+ */
+@SpringBootTest(properties = "spring.datasource.url=" + SequenceIdTest.URL)
+class SequenceIdTest {
+
+    static final String URL = "jdbc:h2:mem:sequence-ids;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void createLegacySchema() {
+        JdbcTemplate legacy = new JdbcTemplate(new DriverManagerDataSource(URL, "sa", ""));
+        legacy.execute("CREATE TABLE users (" +
+                "id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY, " +
+                "name VARCHAR(255) NOT NULL, " +
+                "email VARCHAR(512) NOT NULL UNIQUE)");
+        for (int i = 1; i <= 3; i++) {
+            legacy.update("INSERT INTO users (name, email) VALUES (?, ?)", "Старый " + i, "old" + i + "@example.com");
+        }
+        legacy.execute("CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 10");
+    }
+
+    @Test
+    void shouldContinueAfterExistingIdsInBlocksOfSequenceIncrement() {
+        Long first = TestData.createUser(userService, "Первый");
+        Long second = TestData.createUser(userService, "Второй");
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES (?, ?)", "Вставка", "raw@example.com");
+        Long raw = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class,
+                "raw@example.com");
+
+        // Блок 4..13 выдан Hibernate одним вызовом последовательности, вставка мимо него получает следующий
+        assertEquals(4L, first);
+        assertEquals(5L, second);
+        assertEquals(14L, raw);
+        assertEquals(6, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class));
+    }
+}
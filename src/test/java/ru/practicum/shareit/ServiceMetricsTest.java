@@ -0,0 +1,65 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.metrics.SqlStatementCounter;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ServiceMetricsTest extends SharedContextTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void shouldTimeServiceMethodsAndCountStatementsPerRepositoryMethodAndRequest() throws Exception {
+        Long ownerId = createUser("Владелец");
+        Long bookerId = createUser("Букер");
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(createItem(ownerId));
+        bookingDto.setStart(LocalDateTime.now().plusDays(1));
+        bookingDto.setEnd(LocalDateTime.now().plusDays(2));
+        bookingService.addBooking(bookerId, bookingDto);
+
+        mockMvc.perform(get("/bookings/owner").header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isOk());
+
+        Timer timer = meterRegistry.find("shareit.service").tag("method", "getBookingsByOwner").timer();
+        assertNotNull(timer);
+        assertTrue(timer.count() >= 1);
+        assertNotNull(meterRegistry.find("shareit.service").tag("method", "addBooking").timer());
+        assertNotNull(meterRegistry.find("shareit.service").tag("method", "createUser").timer());
+
+        Counter listing = meterRegistry.find(SqlStatementCounter.STATEMENTS)
+                .tag("repository", "BookingRepository")
+                .tag("method", "findAllByItemOwnerId")
+                .counter();
+        assertNotNull(listing);
+        assertTrue(listing.count() >= 1);
+
+        DistributionSummary perRequest = meterRegistry.find(SqlStatementCounter.STATEMENTS_PER_REQUEST)
+                .tag("uri", "/bookings/owner")
+                .summary();
+        assertNotNull(perRequest);
+        assertEquals(1, perRequest.count());
+        assertTrue(perRequest.max() >= 1 && perRequest.max() <= 4,
+                "Листинг бронирований владельца не должен зависеть от числа бронирований: " + perRequest.max());
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+
+/**
+ * Общий контекст Spring для интеграционных тестов без собственных свойств: наследники поднимают его один раз
+ * на прогон. Шпионы репозиториев объявлены здесь, потому что @SpyBean в отдельном тесте дал бы ему свой
+ * контекст; между тестами Mockito сбрасывает их сам.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+abstract class SharedContextTest {
+
+    @Autowired
+    protected UserService userService;
+
+    @Autowired
+    protected ItemService itemService;
+
+    @SpyBean
+    protected UserRepository userRepository;
+
+    @SpyBean
+    protected ItemRepository itemRepository;
+
+    protected Long createUser(String name) {
+        return TestData.createUser(userService, name);
+    }
+
+    protected Long createItem(Long ownerId) {
+        return TestData.createItem(itemService, ownerId);
+    }
+
+    protected Long createItem(Long ownerId, boolean available) {
+        return TestData.createItem(itemService, ownerId, available);
+    }
+}
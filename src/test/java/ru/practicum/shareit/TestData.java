@@ -0,0 +1,34 @@
+package ru.practicum.shareit;
+
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+/**
+ * Заготовки интеграционных тестов: пользователи с уникальной почтой и вещи, созданные через сервисы.
+ */
+final class TestData {
+
+    private TestData() {
+    }
+
+    static Long createUser(UserService userService, String name) {
+        UserDto userDto = new UserDto();
+        userDto.setName(name);
+        userDto.setEmail(name.hashCode() + "-" + System.nanoTime() + "@example.com");
+        return userService.createUser(userDto).getId();
+    }
+
+    static Long createItem(ItemService itemService, Long ownerId) {
+        return createItem(itemService, ownerId, true);
+    }
+
+    static Long createItem(ItemService itemService, Long ownerId, boolean available) {
+        ItemDto itemDto = new ItemDto();
+        itemDto.setName("Дрель");
+        itemDto.setDescription("Аккумуляторная дрель");
+        itemDto.setAvailable(available);
+        return itemService.addItem(ownerId, itemDto).getId();
+    }
+}
@@ -0,0 +1,103 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.UserDto;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserCacheTest extends SharedContextTest {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        UserDto userDto = new UserDto();
+        userDto.setName("Иван");
+        userDto.setEmail("ivan-" + System.nanoTime() + "@example.com");
+        userId = userService.createUser(userDto).getId();
+        clearInvocations(userRepository);
+    }
+
+    @Test
+    void shouldReadUserThroughCache() {
+        userService.getUserById(userId);
+        userService.getUserById(userId);
+        assertTrue(userService.userExists(userId));
+        assertTrue(userService.userExists(userId));
+
+        verify(userRepository, times(1)).findById(userId);
+        verify(userRepository, times(1)).existsById(userId);
+    }
+
+    @Test
+    void shouldRefreshCacheOnUpdate() {
+        userService.getUserById(userId);
+
+        UserDto update = new UserDto();
+        update.setName("Пётр");
+        userService.updateUser(userId, update);
+
+        assertEquals("Пётр", userService.getUserById(userId).getName());
+    }
+
+    @Test
+    void shouldKeepCacheWhenUpdateRollsBack() {
+        userService.getUserById(userId);
+
+        assertThrows(IllegalStateException.class, () -> transaction.executeWithoutResult(status -> {
+            UserDto update = new UserDto();
+            update.setName("Пётр");
+            userService.updateUser(userId, update);
+            // Пока транзакция открыта, кэш отдаёт зафиксированное состояние
+            assertEquals("Иван", userService.getUserById(userId).getName());
+            throw new IllegalStateException("Откат");
+        }));
+        clearInvocations(userRepository);
+
+        assertEquals("Иван", userService.getUserById(userId).getName());
+        verify(userRepository, never()).findById(userId);
+    }
+
+    @Test
+    void shouldEvictCacheOnDelete() {
+        userService.getUserById(userId);
+        assertTrue(userService.userExists(userId));
+
+        userService.deleteUser(userId);
+
+        assertFalse(userService.userExists(userId));
+        assertThrows(NotFoundException.class, () -> userService.getUserById(userId));
+    }
+
+    @Test
+    void shouldPublishCacheMetrics() {
+        userService.getUserById(userId);
+        userService.getUserById(userId);
+
+        assertNotNull(meterRegistry.find("cache.gets").tag("cache", CacheConfig.USERS).tag("result", "hit")
+                .functionCounter());
+        assertNotNull(meterRegistry.find("cache.evictions").tag("cache", CacheConfig.USERS).functionCounter());
+    }
+}
@@ -4,10 +4,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.datasource.ReadYourWrites;
+import ru.practicum.shareit.datasource.ReplicaProperties;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserChangedEvent;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.UserServiceImpl;
@@ -26,6 +31,12 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private ReadYourWrites readYourWrites = new ReadYourWrites(new ReplicaProperties());
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -83,6 +94,7 @@ class UserServiceImplTest {
         assertEquals("Пётр", updated.getName());
         assertEquals("ivan@example.com", updated.getEmail());
         verify(userRepository, times(1)).save(any(User.class));
+        verify(eventPublisher, times(1)).publishEvent(any(UserChangedEvent.class));
     }
 
     @Test
@@ -121,5 +133,6 @@ class UserServiceImplTest {
         userService.deleteUser(userId);
 
         verify(userRepository, times(1)).deleteById(userId);
+        verify(eventPublisher, times(1)).publishEvent(any(UserChangedEvent.class));
     }
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package ru.practicum.shareit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.UserService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+@Tag("load")
+@ActiveProfiles({"test", "virtual"})
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.springframework.transaction.interceptor=INFO",
+        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=INFO"
+})
+class VirtualThreadLoadTest {
+
+    private static final int CONNECTIONS = 5_000;
+    private static final int REQUESTS_PER_CONNECTION = 4;
+    private static final int ITEMS = 20;
+
+    private static final AtomicInteger PLATFORM_HANDLERS = new AtomicInteger();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @TestConfiguration
+    static class ThreadProbe {
+        @Bean
+        WebMvcConfigurer threadProbeConfigurer() {
+            return new WebMvcConfigurer() {
+                @Override
+                public void addInterceptors(InterceptorRegistry registry) {
+                    registry.addInterceptor(new HandlerInterceptor() {
+                        @Override
+                        public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+                                                 Object handler) {
+                            if (!Thread.currentThread().isVirtual()) {
+                                PLATFORM_HANDLERS.incrementAndGet();
+                            }
+                            return true;
+                        }
+                    });
+                }
+            };
+        }
+    }
+
+    @Test
+    void shouldServeFiveThousandConcurrentConnectionsOnVirtualThreads() throws InterruptedException {
+        Long ownerId = TestData.createUser(userService, "Владелец");
+        Long bookerId = TestData.createUser(userService, "Букер");
+        for (int i = 0; i < ITEMS; i++) {
+            BookingDto bookingDto = new BookingDto();
+            bookingDto.setItemId(TestData.createItem(itemService, ownerId));
+            bookingDto.setStart(LocalDateTime.now().plusDays(1));
+            bookingDto.setEnd(LocalDateTime.now().plusDays(2));
+            bookingService.addBooking(bookerId, bookingDto);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bookings/owner"))
+                .header("X-Sharer-User-Id", ownerId.toString())
+                .timeout(Duration.ofSeconds(60))
+                .build();
+        AtomicInteger ok = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        long startedAt;
+        // Один клиент держит по соединению на каждый одновременный запрос HTTP/1.1
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(clients)
+                     .connectTimeout(Duration.ofSeconds(30))
+                     .build()) {
+            for (int c = 0; c < CONNECTIONS; c++) {
+                clients.submit(() -> {
+                    try {
+                        start.await();
+                        for (int r = 0; r < REQUESTS_PER_CONNECTION; r++) {
+                            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                            (response.statusCode() == 200 ? ok : failed).incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        log.warn("Запрос не выполнен: {}", e.toString());
+                        failed.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            startedAt = System.nanoTime();
+            start.countDown();
+            while (ok.get() + failed.get() < CONNECTIONS * REQUESTS_PER_CONNECTION
+                    && System.nanoTime() - startedAt < TimeUnit.MINUTES.toNanos(5)) {
+                Thread.sleep(10);
+            }
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+
+        log.info("{} соединений, {} успешных запросов, {} ошибок за {} с: {} запросов/с",
+                CONNECTIONS, ok.get(), failed.get(), String.format("%.2f", seconds),
+                String.format("%.0f", ok.get() / seconds));
+        assertEquals(0, failed.get());
+        assertEquals(CONNECTIONS * REQUESTS_PER_CONNECTION, ok.get());
+        assertEquals(0, PLATFORM_HANDLERS.get(), "Запросы должны обрабатываться на виртуальных потоках");
+    }
+}